@@ -0,0 +1,121 @@
+package com.textrover.analysis;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Table-driven character classifier shared by all analysis types.
+ * <p>
+ * Basic Latin through Latin Extended-B is served from a dense table in a single array
+ * load. The rest of the BMP goes through a two-level page table in which pages whose
+ * characters all share one class point at a single shared page, so the sparse ranges
+ * cost almost nothing. Classification is done on the lower-cased character, matching
+ * how the analysis histograms are keyed.
+ */
+@Component
+public class CharacterClassifier {
+
+    public static final int WHITESPACE = 0;
+    public static final int VOWEL = 1;
+    public static final int CONSONANT = 2;
+    public static final int OTHER_LETTER = 3;
+    public static final int DIGIT = 4;
+    public static final int SYMBOL = 5;
+
+    public static final int CLASS_MASK = 0x07;
+    // Set for the characters matched by the regex class \s, which separate words
+    public static final int WORD_SEPARATOR = 0x08;
+
+    // Extended vowels with accents
+    static final String EXTENDED_VOWELS = "aeiou" + "àáâãäåæ" + "èéêë" + "ìíîï" + "òóôõöø" + "ùúûü" + "ýÿ";
+
+    // Extended consonants with accents
+    static final String EXTENDED_CONSONANTS = "bcdfghjklmnpqrstvwxz" + "çñß";
+
+    static final int DENSE_LIMIT = CharacterHistogram.DENSE_LIMIT;
+
+    private static final byte[] DENSE = new byte[DENSE_LIMIT];
+    private static final char[] DENSE_LOWER = new char[DENSE_LIMIT];
+    private static final byte[][] PAGES = new byte[256][];
+
+    static {
+        for (int c = 0; c < DENSE_LIMIT; c++) {
+            DENSE[c] = computeEntry((char) c);
+            DENSE_LOWER[c] = Character.toLowerCase((char) c);
+        }
+
+        byte[][] uniformPages = new byte[(CLASS_MASK | WORD_SEPARATOR) + 1][];
+        for (int page = 0; page < PAGES.length; page++) {
+            byte[] entries = new byte[256];
+            for (int i = 0; i < 256; i++) {
+                entries[i] = computeEntry((char) (page << 8 | i));
+            }
+            if (isUniform(entries)) {
+                int entry = entries[0];
+                if (uniformPages[entry] == null) {
+                    uniformPages[entry] = entries;
+                }
+                PAGES[page] = uniformPages[entry];
+            } else {
+                PAGES[page] = entries;
+            }
+        }
+    }
+
+    /**
+     * Class code combined with flag bits for the given character.
+     */
+    public int lookup(char c) {
+        return c < DENSE_LIMIT ? DENSE[c] : PAGES[c >>> 8][c & 0xFF];
+    }
+
+    /**
+     * Class code (one of {@link #VOWEL}, {@link #CONSONANT}, ...) for the given character.
+     */
+    public int classify(char c) {
+        return lookup(c) & CLASS_MASK;
+    }
+
+    public char toLowerCase(char c) {
+        return c < DENSE_LIMIT ? DENSE_LOWER[c] : Character.toLowerCase(c);
+    }
+
+    public static boolean isLetterClass(int classCode) {
+        return classCode == VOWEL || classCode == CONSONANT || classCode == OTHER_LETTER;
+    }
+
+    public static boolean isWordSeparator(int entry) {
+        return (entry & WORD_SEPARATOR) != 0;
+    }
+
+    private static byte computeEntry(char raw) {
+        char c = Character.toLowerCase(raw);
+        int classCode;
+        if (Character.isLetter(c)) {
+            if (EXTENDED_VOWELS.indexOf(c) >= 0) {
+                classCode = VOWEL;
+            } else if (EXTENDED_CONSONANTS.indexOf(c) >= 0) {
+                classCode = CONSONANT;
+            } else {
+                classCode = OTHER_LETTER;
+            }
+        } else if (Character.isDigit(c)) {
+            classCode = DIGIT;
+        } else if (!Character.isWhitespace(c)) {
+            classCode = SYMBOL;
+        } else {
+            classCode = WHITESPACE;
+        }
+        boolean separator = c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        return (byte) (separator ? classCode | WORD_SEPARATOR : classCode);
+    }
+
+    private static boolean isUniform(byte[] entries) {
+        byte first = entries[0];
+        for (byte entry : entries) {
+            if (entry != first) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,128 @@
+package com.textrover.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Primitive per-character occurrence counter used by the analysis kernel.
+ * Latin characters are counted in a dense array; anything else falls back to a small
+ * open-addressing table, so counting never boxes a Character or an Integer.
+ */
+public final class CharacterHistogram {
+
+    // Basic Latin up to and including Latin Extended-B
+    static final int DENSE_LIMIT = 0x250;
+
+    private static final int INITIAL_SPARSE_CAPACITY = 16;
+
+    private final int[] dense = new int[DENSE_LIMIT];
+    private char[] sparseKeys;
+    private int[] sparseCounts;
+    private int sparseSize;
+
+    @FunctionalInterface
+    public interface CharCountConsumer {
+        void accept(char c, int count);
+    }
+
+    public void increment(char c) {
+        add(c, 1);
+    }
+
+    public void add(char c, int count) {
+        if (c < DENSE_LIMIT) {
+            dense[c] += count;
+        } else {
+            addSparse(c, count);
+        }
+    }
+
+    public void addAll(CharacterHistogram other) {
+        for (int c = 0; c < DENSE_LIMIT; c++) {
+            dense[c] += other.dense[c];
+        }
+        if (other.sparseSize == 0) {
+            return;
+        }
+        for (int i = 0; i < other.sparseKeys.length; i++) {
+            if (other.sparseCounts[i] != 0) {
+                addSparse(other.sparseKeys[i], other.sparseCounts[i]);
+            }
+        }
+    }
+
+    public int get(char c) {
+        if (c < DENSE_LIMIT) {
+            return dense[c];
+        }
+        if (sparseKeys == null) {
+            return 0;
+        }
+        int slot = findSlot(sparseKeys, sparseCounts, c);
+        return sparseCounts[slot];
+    }
+
+    /**
+     * Visit every character with a non-zero count in ascending character order.
+     */
+    public void forEach(CharCountConsumer consumer) {
+        for (int c = 0; c < DENSE_LIMIT; c++) {
+            if (dense[c] != 0) {
+                consumer.accept((char) c, dense[c]);
+            }
+        }
+        if (sparseSize == 0) {
+            return;
+        }
+        char[] keys = new char[sparseSize];
+        int n = 0;
+        for (int i = 0; i < sparseKeys.length; i++) {
+            if (sparseCounts[i] != 0) {
+                keys[n++] = sparseKeys[i];
+            }
+        }
+        Arrays.sort(keys);
+        for (char c : keys) {
+            consumer.accept(c, get(c));
+        }
+    }
+
+    private void addSparse(char c, int count) {
+        if (sparseKeys == null) {
+            sparseKeys = new char[INITIAL_SPARSE_CAPACITY];
+            sparseCounts = new int[INITIAL_SPARSE_CAPACITY];
+        }
+        int slot = findSlot(sparseKeys, sparseCounts, c);
+        if (sparseCounts[slot] == 0) {
+            sparseKeys[slot] = c;
+            sparseSize++;
+        }
+        sparseCounts[slot] += count;
+        if (sparseSize * 2 > sparseKeys.length) {
+            growSparse();
+        }
+    }
+
+    private void growSparse() {
+        char[] oldKeys = sparseKeys;
+        int[] oldCounts = sparseCounts;
+        sparseKeys = new char[oldKeys.length * 2];
+        sparseCounts = new int[oldCounts.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = findSlot(sparseKeys, sparseCounts, oldKeys[i]);
+                sparseKeys[slot] = oldKeys[i];
+                sparseCounts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    // Linear probing; a zero count marks an empty slot since stored counts are always positive
+    private static int findSlot(char[] keys, int[] counts, char c) {
+        int mask = keys.length - 1;
+        int slot = (c * 0x9E3779B1 >>> 16) & mask;
+        while (counts[slot] != 0 && keys[slot] != c) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,69 @@
+package com.textrover.analysis;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task that analyzes a large text by splitting it into segments at word
+ * separators, analyzing the segments independently and merging the partial kernels
+ * back together in text order.
+ */
+public class ParallelAnalysisTask extends RecursiveTask<TextAnalysisKernel> {
+
+    private final CharacterClassifier classifier;
+    private final boolean asciiFastPath;
+    private final CharSequence text;
+    private final int from;
+    private final int to;
+    private final int segmentSize;
+
+    public ParallelAnalysisTask(CharacterClassifier classifier, boolean asciiFastPath, CharSequence text, int segmentSize) {
+        this(classifier, asciiFastPath, text, 0, text.length(), segmentSize);
+    }
+
+    private ParallelAnalysisTask(CharacterClassifier classifier, boolean asciiFastPath,
+                                 CharSequence text, int from, int to, int segmentSize) {
+        this.classifier = classifier;
+        this.asciiFastPath = asciiFastPath;
+        this.text = text;
+        this.from = from;
+        this.to = to;
+        this.segmentSize = Math.max(1, segmentSize);
+    }
+
+    @Override
+    protected TextAnalysisKernel compute() {
+        int split = to - from > segmentSize ? findSplit() : -1;
+        if (split < 0) {
+            TextAnalysisKernel kernel = new TextAnalysisKernel(classifier, asciiFastPath);
+            kernel.accept(text, from, to);
+            return kernel;
+        }
+
+        ParallelAnalysisTask left = new ParallelAnalysisTask(classifier, asciiFastPath, text, from, split, segmentSize);
+        ParallelAnalysisTask right = new ParallelAnalysisTask(classifier, asciiFastPath, text, split, to, segmentSize);
+        left.fork();
+        TextAnalysisKernel rightKernel = right.compute();
+        TextAnalysisKernel leftKernel = left.join();
+        leftKernel.merge(rightKernel);
+        return leftKernel;
+    }
+
+    /**
+     * Position just after the word separator closest to the middle of the range, or -1
+     * when the range contains none, so that no word is ever cut in two.
+     */
+    private int findSplit() {
+        int middle = from + (to - from) / 2;
+        for (int i = middle; i < to - 1; i++) {
+            if (CharacterClassifier.isWordSeparator(classifier.lookup(text.charAt(i)))) {
+                return i + 1;
+            }
+        }
+        for (int i = middle - 1; i > from; i--) {
+            if (CharacterClassifier.isWordSeparator(classifier.lookup(text.charAt(i)))) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+}
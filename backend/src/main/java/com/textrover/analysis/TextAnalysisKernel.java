@@ -0,0 +1,364 @@
+package com.textrover.analysis;
+
+import com.textrover.dto.AnalysisStatisticsDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.textrover.analysis.CharacterClassifier.CLASS_MASK;
+import static com.textrover.analysis.CharacterClassifier.CONSONANT;
+import static com.textrover.analysis.CharacterClassifier.DIGIT;
+import static com.textrover.analysis.CharacterClassifier.OTHER_LETTER;
+import static com.textrover.analysis.CharacterClassifier.VOWEL;
+import static com.textrover.analysis.CharacterClassifier.WHITESPACE;
+
+/**
+ * Single-pass analysis kernel. One walk over the input produces the lower-cased
+ * character histogram, every {@link AnalysisStatisticsDTO} field and the word count,
+ * without copying the text or boxing individual characters.
+ * <p>
+ * Instances are stateful and not thread-safe; use one per analysis.
+ */
+public final class TextAnalysisKernel {
+
+    // Fast-path block width; a block that is not pure printable ASCII is redone by the scalar path
+    private static final int BLOCK = 64;
+    private static final int SCRATCH_SIZE = 1024;
+
+    // Per ASCII character: 1 = \s separator, 2 = control character that needs the scalar path, 0 = content
+    private static final byte[] ASCII_KIND = new byte[128];
+
+    static {
+        for (int c = 0; c < ASCII_KIND.length; c++) {
+            boolean separator = c == ' ' || (c >= '\t' && c <= '\r');
+            ASCII_KIND[c] = (byte) (separator ? 1 : c <= ' ' ? 2 : 0);
+        }
+    }
+
+    private final CharacterClassifier classifier;
+    private final boolean asciiFastPath;
+    private final CharacterHistogram histogram = new CharacterHistogram();
+
+    // Raw, not yet classified counts gathered by the ASCII fast path
+    private int[] asciiCounts;
+    private char[] scratch;
+
+    private long totalCharacters;
+    private int totalLetters;
+    private int totalVowels;
+    private int totalConsonants;
+    private int totalDigits;
+    private int totalSymbols;
+
+    // Word tracking, equivalent to text.trim().split("\\s+").length
+    private int wordCount;
+    private boolean inWord;
+    private boolean wordHasContent;
+    private int pendingControlWords;
+    private int leadingControlWords;
+
+    public TextAnalysisKernel(CharacterClassifier classifier) {
+        this(classifier, false);
+    }
+
+    /**
+     * @param asciiFastPath count pure-ASCII stretches in 64-character blocks and classify
+     *                      them once per distinct character instead of once per occurrence
+     */
+    public TextAnalysisKernel(CharacterClassifier classifier, boolean asciiFastPath) {
+        this.classifier = classifier;
+        this.asciiFastPath = asciiFastPath;
+    }
+
+    public void accept(CharSequence text) {
+        accept(text, 0, text.length());
+    }
+
+    public void accept(CharSequence text, int from, int to) {
+        totalCharacters += to - from;
+        if (asciiFastPath && text instanceof String string) {
+            if (scratch == null) {
+                scratch = new char[SCRATCH_SIZE];
+            }
+            for (int i = from; i < to; i += SCRATCH_SIZE) {
+                int length = Math.min(SCRATCH_SIZE, to - i);
+                string.getChars(i, i + length, scratch, 0);
+                acceptBlocks(scratch, 0, length);
+            }
+            flushAsciiCounts();
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            accept(text.charAt(i));
+        }
+    }
+
+    /**
+     * Feed one chunk of a larger document. State carries over between chunks, so words
+     * split across a chunk boundary are still counted once.
+     */
+    public void accept(char[] buffer, int offset, int length) {
+        totalCharacters += length;
+        if (asciiFastPath) {
+            acceptBlocks(buffer, offset, length);
+            flushAsciiCounts();
+            return;
+        }
+        for (int i = offset, end = offset + length; i < end; i++) {
+            accept(buffer[i]);
+        }
+    }
+
+    private void acceptBlocks(char[] buffer, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i += BLOCK) {
+            int blockLength = Math.min(BLOCK, end - i);
+            if (!acceptAsciiBlock(buffer, i, blockLength)) {
+                for (int j = i; j < i + blockLength; j++) {
+                    accept(buffer[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Count a block of up to 64 characters if it is printable ASCII plus separators, in
+     * which case every non-separator is word content and a word starts wherever content
+     * follows a separator. The loop is branch-free and unrolled four wide, with four
+     * interleaved count tables so repeated characters do not serialise on one counter.
+     * Returns false, leaving all state untouched, when the block needs the scalar path.
+     */
+    private boolean acceptAsciiBlock(char[] buffer, int offset, int length) {
+        // A control-only run in progress needs the scalar bookkeeping
+        if (inWord && !wordHasContent) {
+            return false;
+        }
+        if (asciiCounts == null) {
+            asciiCounts = new int[4 * 128];
+        }
+        int[] counts = asciiCounts;
+
+        int combined = 0;
+        int kinds = 0;
+        int starts = 0;
+        int precededBySeparator = inWord ? 0 : 1;
+        int j = offset;
+        for (int end = offset + (length & ~3); j < end; j += 4) {
+            char c0 = buffer[j];
+            char c1 = buffer[j + 1];
+            char c2 = buffer[j + 2];
+            char c3 = buffer[j + 3];
+            combined |= c0 | c1 | c2 | c3;
+            int k0 = ASCII_KIND[c0 & 0x7F];
+            int k1 = ASCII_KIND[c1 & 0x7F];
+            int k2 = ASCII_KIND[c2 & 0x7F];
+            int k3 = ASCII_KIND[c3 & 0x7F];
+            kinds |= k0 | k1 | k2 | k3;
+            starts += (precededBySeparator & ~k0) + (k0 & ~k1 & 1) + (k1 & ~k2 & 1) + (k2 & ~k3 & 1);
+            precededBySeparator = k3 & 1;
+            counts[c0 & 0x7F]++;
+            counts[128 + (c1 & 0x7F)]++;
+            counts[256 + (c2 & 0x7F)]++;
+            counts[384 + (c3 & 0x7F)]++;
+        }
+        for (int end = offset + length; j < end; j++) {
+            char c = buffer[j];
+            combined |= c;
+            int k = ASCII_KIND[c & 0x7F];
+            kinds |= k;
+            starts += precededBySeparator & ~k;
+            precededBySeparator = k & 1;
+            counts[((j - offset) & 3) * 128 + (c & 0x7F)]++;
+        }
+
+        if (combined >= 0x80 || (kinds & 2) != 0) {
+            for (j = offset; j < offset + length; j++) {
+                counts[((j - offset) & 3) * 128 + (buffer[j] & 0x7F)]--;
+            }
+            return false;
+        }
+
+        if (starts > 0) {
+            wordCount += starts + pendingControlWords;
+            pendingControlWords = 0;
+        }
+        inWord = precededBySeparator == 0;
+        wordHasContent = inWord;
+        return true;
+    }
+
+    // Classify the fast-path counts once per distinct ASCII character
+    private void flushAsciiCounts() {
+        if (asciiCounts == null) {
+            return;
+        }
+        for (int c = 0; c < 128; c++) {
+            int count = asciiCounts[c] + asciiCounts[128 + c] + asciiCounts[256 + c] + asciiCounts[384 + c];
+            if (count == 0) {
+                continue;
+            }
+            asciiCounts[c] = 0;
+            asciiCounts[128 + c] = 0;
+            asciiCounts[256 + c] = 0;
+            asciiCounts[384 + c] = 0;
+            int classCode = classifier.classify((char) c);
+            if (classCode == WHITESPACE) {
+                continue;
+            }
+            histogram.add(classifier.toLowerCase((char) c), count);
+            switch (classCode) {
+                case VOWEL -> {
+                    totalLetters += count;
+                    totalVowels += count;
+                }
+                case CONSONANT -> {
+                    totalLetters += count;
+                    totalConsonants += count;
+                }
+                case OTHER_LETTER -> totalLetters += count;
+                case DIGIT -> totalDigits += count;
+                default -> totalSymbols += count;
+            }
+        }
+    }
+
+    private void accept(char c) {
+        int entry = classifier.lookup(c);
+        int classCode = entry & CLASS_MASK;
+
+        // Whitespace is neither counted nor part of the histogram
+        if (classCode != WHITESPACE) {
+            histogram.increment(classifier.toLowerCase(c));
+            switch (classCode) {
+                case VOWEL -> {
+                    totalLetters++;
+                    totalVowels++;
+                }
+                case CONSONANT -> {
+                    totalLetters++;
+                    totalConsonants++;
+                }
+                case OTHER_LETTER -> totalLetters++;
+                case DIGIT -> totalDigits++;
+                default -> totalSymbols++;
+            }
+        }
+
+        trackWord(c, entry);
+    }
+
+    /**
+     * Words are runs of non-{@code \s} characters. Like {@code String.trim()}, control
+     * characters at the very start or end of the text do not form a word on their own,
+     * so control-only runs are held back until real content follows them.
+     */
+    private void trackWord(char c, int entry) {
+        if (CharacterClassifier.isWordSeparator(entry)) {
+            if (inWord && !wordHasContent) {
+                if (wordCount > 0) {
+                    pendingControlWords++;
+                } else {
+                    leadingControlWords++;
+                }
+            }
+            inWord = false;
+            wordHasContent = false;
+            return;
+        }
+        inWord = true;
+        if (c > ' ' && !wordHasContent) {
+            wordHasContent = true;
+            wordCount += 1 + pendingControlWords;
+            pendingControlWords = 0;
+        }
+    }
+
+    /**
+     * Fold in the counters of the segment that directly follows this one in the text.
+     * This segment must end right after a word separator, so that no word straddles the
+     * boundary; control-only runs are reconciled the same way a single pass would.
+     */
+    public void merge(TextAnalysisKernel next) {
+        totalCharacters += next.totalCharacters;
+        totalLetters += next.totalLetters;
+        totalVowels += next.totalVowels;
+        totalConsonants += next.totalConsonants;
+        totalDigits += next.totalDigits;
+        totalSymbols += next.totalSymbols;
+        histogram.addAll(next.histogram);
+
+        if (next.wordCount == 0) {
+            if (wordCount > 0) {
+                pendingControlWords += next.leadingControlWords;
+            } else {
+                leadingControlWords += next.leadingControlWords;
+            }
+        } else if (wordCount == 0) {
+            leadingControlWords += next.leadingControlWords;
+            wordCount = next.wordCount;
+            pendingControlWords = next.pendingControlWords;
+        } else {
+            wordCount += pendingControlWords + next.leadingControlWords + next.wordCount;
+            pendingControlWords = next.pendingControlWords;
+        }
+        inWord = next.inWord;
+        wordHasContent = next.wordHasContent;
+    }
+
+    /**
+     * Character counts restricted to the letters selected by the analysis type.
+     */
+    public Map<Character, Integer> toResultMap(AnalysisTypeDTO type) {
+        int target = type == AnalysisTypeDTO.VOWELS ? VOWEL : CONSONANT;
+        Map<Character, Integer> result = new HashMap<>();
+        histogram.forEach((c, count) -> {
+            if (classifier.classify(c) == target) {
+                result.put(c, count);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Whether any non-blank character has been seen, i.e. the input is not empty after trimming.
+     */
+    public boolean hasContent() {
+        return wordCount > 0;
+    }
+
+    public long getTotalCharacters() {
+        return totalCharacters;
+    }
+
+    public int matchedLetters(AnalysisTypeDTO type) {
+        return type == AnalysisTypeDTO.VOWELS ? totalVowels : totalConsonants;
+    }
+
+    public AnalysisStatisticsDTO toStatistics() {
+        // Most frequent non-whitespace character; ties resolve to the lowest character
+        char[] mostFrequent = new char[1];
+        int[] mostFrequentCount = new int[1];
+        histogram.forEach((c, count) -> {
+            if (count > mostFrequentCount[0]) {
+                mostFrequent[0] = c;
+                mostFrequentCount[0] = count;
+            }
+        });
+
+        double vowelPercentage = totalLetters > 0 ? (double) totalVowels / totalLetters * 100 : 0;
+        double consonantPercentage = totalLetters > 0 ? (double) totalConsonants / totalLetters * 100 : 0;
+
+        AnalysisStatisticsDTO stats = new AnalysisStatisticsDTO();
+        stats.setTotalLetters(totalLetters);
+        stats.setTotalVowels(totalVowels);
+        stats.setTotalConsonants(totalConsonants);
+        stats.setTotalDigits(totalDigits);
+        stats.setTotalSymbols(totalSymbols);
+        stats.setWordCount(wordCount);
+        stats.setVowelPercentage(Math.round(vowelPercentage * 100.0) / 100.0);
+        stats.setConsonantPercentage(Math.round(consonantPercentage * 100.0) / 100.0);
+        stats.setMostFrequentCharacter(mostFrequentCount[0] > 0 ? mostFrequent[0] : null);
+        stats.setMostFrequentCount(mostFrequentCount[0]);
+        return stats;
+    }
+}
@@ -0,0 +1,43 @@
+package com.textrover.config;
+
+import com.textrover.service.AnalysisResultCache;
+import com.textrover.service.AnalysisTrafficWindow;
+import com.textrover.service.CharacterFrequencyCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class AnalysisConfig {
+
+    /**
+     * Dedicated pool for splitting large texts, kept apart from the common pool so
+     * analysis load cannot starve unrelated parallel work.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool analysisForkJoinPool(AnalysisProperties analysisProperties) {
+        int parallelism = analysisProperties.getParallel().getParallelism();
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public AnalysisResultCache analysisResultCache(AnalysisProperties analysisProperties, MeterRegistry meterRegistry) {
+        AnalysisResultCache cache = new AnalysisResultCache(analysisProperties.getCache());
+        // Publishes cache.gets (hit/miss), cache.evictions, cache.size, ... tagged cache=analysisResults
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.getNativeCache(), "analysisResults");
+        return cache;
+    }
+
+    @Bean
+    public CharacterFrequencyCounter characterFrequencyCounter() {
+        return new CharacterFrequencyCounter();
+    }
+
+    @Bean
+    public AnalysisTrafficWindow analysisTrafficWindow(AnalysisProperties analysisProperties) {
+        return new AnalysisTrafficWindow(analysisProperties.getTraffic());
+    }
+}
@@ -0,0 +1,189 @@
+package com.textrover.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for the text analysis engine, bound from {@code textrover.analysis.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "textrover.analysis")
+public class AnalysisProperties {
+
+    // Opt-in bulk counting of pure-ASCII stretches; non-ASCII input always uses the scalar classifier
+    private boolean asciiFastPath = false;
+
+    private Parallel parallel = new Parallel();
+
+    private Batch batch = new Batch();
+
+    private Cache cache = new Cache();
+
+    private Coalescing coalescing = new Coalescing();
+
+    private History history = new History();
+
+    private Frequencies frequencies = new Frequencies();
+
+    private Traffic traffic = new Traffic();
+
+    @Getter
+    @Setter
+    public static class Parallel {
+        // Texts shorter than this many characters are always analyzed on the calling thread
+        private int threshold = 65_536;
+        // Target number of characters per fork/join leaf task
+        private int segmentSize = 16_384;
+        // Worker threads for the analysis pool; 0 means one per available processor
+        private int parallelism = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        // Maximum number of texts accepted by POST /analyze/batch
+        private int maxSize = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        // Serve repeated (type, text) analyses from memory
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        private Duration timeToLive = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Coalescing {
+        // Let concurrent identical requests wait on one in-flight analysis
+        private boolean enabled = true;
+        private DuplicateHistory duplicateHistory = DuplicateHistory.ONCE;
+    }
+
+    @Getter
+    @Setter
+    public static class Frequencies {
+        // How often the global character counts are added to character_frequencies
+        private Duration flushInterval = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Traffic {
+        // Granularity of the recent traffic windows
+        private Duration sliceLength = Duration.ofSeconds(10);
+        // Longest window that can be queried; must be a multiple of the slice length
+        private Duration span = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class History {
+        // Persist history on a background writer instead of on the request thread
+        private boolean writeBehind = false;
+        private int queueCapacity = 10_000;
+        private int batchSize = 200;
+        // Longest a queued result waits for its batch to fill up before being written
+        private Duration maxLinger = Duration.ofMillis(100);
+        private OverflowPolicy overflowPolicy = OverflowPolicy.WRITE_THROUGH;
+        // How long shutdown waits for queued results to be written
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+        private HistogramStorage histogramStorage = HistogramStorage.ROWS;
+        private PersistencePath persistencePath = PersistencePath.JPA;
+        // GET /history?preview=true: characters of text and number of most frequent characters per entry
+        private int previewLength = 120;
+        private int previewTopCharacters = 5;
+        // GET /history/search: newest word matches and closest resemblances ranked per search, each
+        private int searchCandidates = 500;
+        // Rows fetched per round trip by the GET /history/export database cursor
+        private int exportFetchSize = 1000;
+        // History entries loaded per COPY transaction by the bulk import
+        private int importChunkSize = 5000;
+        // Maximum number of offline analyses per POST /history/sync request
+        private int syncMaxSize = 100;
+        // History entries older than this are deleted by the retention job; zero keeps everything
+        private Duration retention = Duration.ZERO;
+        // How often the retention job looks for expired entries
+        private Duration retentionInterval = Duration.ofHours(1);
+        // Entries deleted per retention transaction
+        private int retentionBatchSize = 1000;
+        // Pause between retention batches, leaving room for concurrent writes
+        private Duration retentionBatchPause = Duration.ofMillis(50);
+        // Time span covered by each partition of the history tables
+        private PartitionInterval partitionInterval = PartitionInterval.MONTHLY;
+        // Partitions kept ready ahead of the current one
+        private int partitionPremake = 3;
+        // How often the partition manager runs
+        private Duration partitionMaintenanceInterval = Duration.ofHours(1);
+        // What happens to partitions that lie entirely before the retention cutoff
+        private ExpiredPartitions expiredPartitions = ExpiredPartitions.DROP;
+    }
+
+    /**
+     * Time span of one history table partition, aligned to UTC.
+     */
+    public enum PartitionInterval {
+        DAILY,
+        // Weeks start on Monday
+        WEEKLY,
+        MONTHLY
+    }
+
+    /**
+     * How expired history partitions are removed.
+     */
+    public enum ExpiredPartitions {
+        // Drop the partitions and their data
+        DROP,
+        // Detach them into standalone tables, e.g. for archiving
+        DETACH
+    }
+
+    /**
+     * How a single history entry is written.
+     */
+    public enum PersistencePath {
+        // Hibernate persist of the result with its cascaded character count rows
+        JPA,
+        // One CTE statement inserting the result and its character counts together
+        SINGLE_STATEMENT
+    }
+
+    /**
+     * How the character histogram of a history entry is stored.
+     */
+    public enum HistogramStorage {
+        // One analysis_character_counts row per distinct character
+        ROWS,
+        // A single packed column on analysis_results
+        PACKED
+    }
+
+    /**
+     * What a request does when the write-behind queue is full.
+     */
+    public enum OverflowPolicy {
+        // Wait for room in the queue
+        BLOCK,
+        // Write the result synchronously on the request thread
+        WRITE_THROUGH,
+        // Discard the result; counted in textrover.history.write.dropped
+        DROP
+    }
+
+    /**
+     * Whether requests that joined an in-flight analysis get their own history row.
+     */
+    public enum DuplicateHistory {
+        // Only the request that ran the analysis writes history
+        ONCE,
+        // Every request writes history, as if it had been analyzed on its own
+        PER_REQUEST
+    }
+}
@@ -1,19 +1,62 @@
 package com.textrover.controller;
 
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisBatchItemDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import com.textrover.dto.AnalysisRequestDTO;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisSyncItemDTO;
+import com.textrover.dto.generated.AnalysisBatchResponse;
+import com.textrover.dto.generated.AnalysisHistoryImportResponse;
+import com.textrover.dto.generated.AnalysisHistoryItem;
 import com.textrover.dto.generated.AnalysisHistoryResponse;
 import com.textrover.dto.generated.AnalysisRequest;
 import com.textrover.dto.generated.AnalysisResponse;
+import com.textrover.dto.generated.AnalysisSummaryResponse;
+import com.textrover.dto.generated.AggregateStatisticsResponse;
+import com.textrover.dto.generated.AnalysisType;
+import com.textrover.dto.generated.CharacterFrequenciesResponse;
+import com.textrover.dto.generated.HistorySyncItem;
+import com.textrover.dto.generated.HistorySyncRequest;
+import com.textrover.dto.generated.HistorySyncResponse;
+import com.textrover.dto.generated.TrafficStatisticsResponse;
+import com.textrover.exception.ValidationException;
 import com.textrover.mapper.AnalysisMapper;
+import com.textrover.service.AnalysisAggregateService;
+import com.textrover.service.AnalysisCoalescingService;
+import com.textrover.service.AnalysisHistoryExporter;
+import com.textrover.service.AnalysisHistoryImporter;
 import com.textrover.service.AnalysisHistoryService;
+import com.textrover.service.AnalysisHistoryWriter;
+import com.textrover.service.AnalysisSyncService;
+import com.textrover.service.AnalysisTrafficWindow;
+import com.textrover.service.CharacterFrequencyService;
 import com.textrover.service.TextAnalysisService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/")
@@ -22,8 +65,18 @@ public class TextAnalysisController {
 
     private static final Logger log = LogManager.getLogger(TextAnalysisController.class);
     private final TextAnalysisService textAnalysisService;
+    private final AnalysisCoalescingService analysisCoalescingService;
     private final AnalysisHistoryService analysisHistoryService;
+    private final AnalysisHistoryWriter analysisHistoryWriter;
+    private final AnalysisHistoryExporter analysisHistoryExporter;
+    private final AnalysisHistoryImporter analysisHistoryImporter;
+    private final AnalysisSyncService analysisSyncService;
+    private final AnalysisAggregateService analysisAggregateService;
+    private final CharacterFrequencyService characterFrequencyService;
+    private final AnalysisTrafficWindow analysisTrafficWindow;
     private final AnalysisMapper analysisMapper;
+    private final AnalysisProperties analysisProperties;
+    private final Validator validator;
 
     @PostMapping("/analyze")
     public ResponseEntity<AnalysisResponse> analyzeText(@Valid @RequestBody AnalysisRequest request) {
@@ -33,40 +86,12 @@ public class TextAnalysisController {
             long startTime = System.currentTimeMillis();
 
             var internalRequest = analysisMapper.toInternal(request);
-            var internalResponse = textAnalysisService.analyzeText(internalRequest);
+            // Identical concurrent requests share one analysis and history write
+            var internalResponse = analysisCoalescingService.analyzeAndRecord(internalRequest, "online");
 
             AnalysisResponse response = analysisMapper.toGenerated(internalResponse);
             
             long responseTime = System.currentTimeMillis() - startTime;
-
-            Map<String, Integer> stringKeyMap = response.getResult();
-            
-            // Convert String keys to Character keys for the service
-            Map<Character, Integer> characterKeyMap = stringKeyMap.entrySet().stream()
-                .collect(java.util.stream.Collectors.toMap(
-                    entry -> entry.getKey().charAt(0), 
-                    Map.Entry::getValue
-                ));
-            
-            // Calculate additional statistics from internal response
-            var stats = internalResponse.getStatistics();
-            
-            analysisHistoryService.saveAnalysisResult(
-                request.getText(),
-                request.getType().toString(),
-                "online", // This is from REST API
-                characterKeyMap,
-                stats.getTotalLetters(),
-                stats.getTotalVowels(),
-                stats.getTotalConsonants(),
-                stats.getTotalDigits(),
-                stats.getTotalSymbols(),
-                stats.getWordCount(),
-                stats.getVowelPercentage(),
-                stats.getConsonantPercentage(),
-                stats.getMostFrequentCharacter(),
-                stats.getMostFrequentCount()
-            );
             
             log.info("Successfully processed analysis request in {}ms", responseTime);
             
@@ -81,14 +106,105 @@ public class TextAnalysisController {
         }
     }
     
+    @PostMapping("/analyze/batch")
+    public ResponseEntity<AnalysisBatchResponse> analyzeTextBatch(@RequestBody List<AnalysisRequest> requests) {
+        int maxSize = analysisProperties.getBatch().getMaxSize();
+        if (requests == null || requests.isEmpty()) {
+            throw new ValidationException("Batch must contain at least one text");
+        }
+        if (requests.size() > maxSize) {
+            throw new ValidationException("Batch cannot contain more than " + maxSize + " texts");
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        // Reject invalid items individually so the rest of the batch still goes through
+        AnalysisBatchItemDTO[] items = new AnalysisBatchItemDTO[requests.size()];
+        List<Integer> validIndexes = new ArrayList<>(requests.size());
+        List<AnalysisRequestDTO> validRequests = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            AnalysisRequest request = requests.get(i);
+            String violations = request == null ? "request: must not be null" : validator.validate(request).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining(", "));
+            if (violations.isEmpty()) {
+                validIndexes.add(i);
+                validRequests.add(analysisMapper.toInternal(request));
+            } else {
+                items[i] = AnalysisBatchItemDTO.builder()
+                        .index(i)
+                        .errorCode("VALIDATION_ERROR")
+                        .errorMessage("Request validation failed: " + violations)
+                        .build();
+            }
+        }
+
+        List<AnalysisBatchItemDTO> analyzed = textAnalysisService.analyzeBatch(validRequests);
+        List<AnalysisResponseDTO> successful = new ArrayList<>(analyzed.size());
+        for (int i = 0; i < analyzed.size(); i++) {
+            AnalysisBatchItemDTO item = analyzed.get(i);
+            item.setIndex(validIndexes.get(i));
+            items[item.getIndex()] = item;
+            if (item.isSuccessful()) {
+                successful.add(item.getResponse());
+            }
+        }
+
+        if (!successful.isEmpty()) {
+            analysisHistoryWriter.writeAll(successful, "online");
+        }
+
+        log.info("Processed batch of {} texts ({} successful) in {}ms",
+                requests.size(), successful.size(), System.currentTimeMillis() - startTime);
+
+        return ResponseEntity.ok(analysisMapper.toGeneratedBatchResponse(Arrays.asList(items)));
+    }
+
+    @PostMapping(value = "/analyze/stream",
+            consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<AnalysisSummaryResponse> analyzeTextStream(
+            @RequestParam AnalysisType type,
+            HttpServletRequest request) throws IOException {
+
+        log.debug("Streaming analysis request - Type: {}, Content-Length: {}", type, request.getContentLengthLong());
+
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+
+        try (Reader reader = new InputStreamReader(request.getInputStream(), charset)) {
+            var internalResponse = textAnalysisService.analyzeStream(analysisMapper.toInternal(type), reader);
+            return ResponseEntity.ok(analysisMapper.toGeneratedSummary(internalResponse));
+        }
+    }
+
     @GetMapping("/history")
     public ResponseEntity<AnalysisHistoryResponse> getAnalysisHistory(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean includeTotal,
+            @RequestParam(defaultValue = "false") boolean preview,
+            @RequestParam(required = false) AnalysisType analysisType,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo) {
         
-        log.debug("Fetching analysis history - page: {}, size: {}", page, size);
+        log.debug("Fetching analysis history - page: {}, size: {}, cursor: {}, type: {}, mode: {}, from: {}, to: {}",
+                page, size, cursor, analysisType, mode, createdFrom, createdTo);
         
-        var historyPageDTO = analysisHistoryService.getAnalysisHistory(page, size);
+        // Offset paging is gone; a numbered page would otherwise silently come back as the first one
+        if (page != 0) {
+            throw new ValidationException(
+                    "Page numbers are not supported, pass the nextCursor of the previous page as cursor");
+        }
+        AnalysisHistoryQueryDTO filter = historyFilter(analysisType, mode, createdFrom, createdTo);
+        
+        // The first page keeps the exact total clients have always received; pages reached
+        // through a cursor use the planner estimate unless asked otherwise
+        boolean exactTotal = includeTotal != null ? includeTotal : cursor == null;
+        
+        var historyPageDTO = analysisHistoryService.getAnalysisHistory(filter, cursor, size, exactTotal, preview);
         
         // Map DTO to generated response
         AnalysisHistoryResponse response = analysisMapper.toGeneratedHistoryResponse(historyPageDTO);
@@ -98,6 +214,147 @@ public class TextAnalysisController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/history/search")
+    public ResponseEntity<AnalysisHistoryResponse> searchAnalysisHistory(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean preview,
+            @RequestParam(required = false) AnalysisType analysisType,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo) {
+
+        log.debug("Searching analysis history - q: {}, size: {}, cursor: {}, type: {}, mode: {}, from: {}, to: {}",
+                q, size, cursor, analysisType, mode, createdFrom, createdTo);
+
+        var historyPageDTO = analysisHistoryService.searchHistory(
+                q, historyFilter(analysisType, mode, createdFrom, createdTo), cursor, size, preview);
+
+        log.info("Found {} analysis results for search", historyPageDTO.getContent().size());
+
+        return ResponseEntity.ok(analysisMapper.toGeneratedHistoryResponse(historyPageDTO));
+    }
+
+    @PostMapping("/history/sync")
+    public ResponseEntity<HistorySyncResponse> syncOfflineAnalyses(@RequestBody HistorySyncRequest request) {
+        if (request == null || request.getItems() == null) {
+            throw new ValidationException("Sync batch must contain at least one analysis");
+        }
+
+        // Reject invalid items individually so a bad entry cannot block the client's queue
+        List<AnalysisSyncItemDTO> items = new ArrayList<>(request.getItems().size());
+        for (HistorySyncItem item : request.getItems()) {
+            String violations = item == null ? "item: must not be null" : validator.validate(item).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining(", "));
+            if (violations.isEmpty()) {
+                items.add(analysisMapper.toInternal(item));
+            } else {
+                items.add(AnalysisSyncItemDTO.builder()
+                        .clientId(item != null ? item.getClientId() : null)
+                        .rejection("Request validation failed: " + violations)
+                        .build());
+            }
+        }
+
+        var results = analysisSyncService.sync(items);
+
+        return ResponseEntity.ok(analysisMapper.toGeneratedSyncResponse(results));
+    }
+
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) AnalysisType analysisType,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo) {
+
+        AnalysisHistoryExporter.Format exportFormat = AnalysisHistoryExporter.Format.of(format);
+        AnalysisHistoryQueryDTO filter = historyFilter(analysisType, mode, createdFrom, createdTo);
+        analysisHistoryExporter.validate(filter);
+
+        log.info("Exporting analysis history - Format: {}, Gzip: {}", exportFormat, gzip);
+
+        String filename = "analysis-history." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> analysisHistoryExporter.export(filter, exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/history/{id}")
+    public ResponseEntity<AnalysisHistoryItem> getAnalysisHistoryEntry(@PathVariable long id) {
+        log.debug("Fetching analysis history entry {}", id);
+
+        var historyDTO = analysisHistoryService.getAnalysisHistoryEntry(id);
+
+        return ResponseEntity.ok(analysisMapper.toGeneratedHistoryItem(historyDTO));
+    }
+
+    private AnalysisHistoryQueryDTO historyFilter(AnalysisType analysisType, String mode,
+                                                  OffsetDateTime createdFrom, OffsetDateTime createdTo) {
+        return AnalysisHistoryQueryDTO.builder()
+                .analysisType(analysisType != null ? analysisMapper.toInternal(analysisType).name() : null)
+                .mode(mode)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .build();
+    }
+
+    @PostMapping(value = "/admin/history/import",
+            consumes = {"application/x-ndjson", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<AnalysisHistoryImportResponse> importHistory(HttpServletRequest request) throws IOException {
+        log.info("Importing analysis history - Content-Length: {}", request.getContentLengthLong());
+
+        var importDTO = analysisHistoryImporter.importHistory(request.getInputStream());
+
+        return ResponseEntity.ok(analysisMapper.toGeneratedImportResponse(importDTO));
+    }
+
+    @GetMapping("/statistics/aggregate")
+    public ResponseEntity<AggregateStatisticsResponse> getAggregateStatistics(
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+            @RequestParam(required = false) AnalysisType analysisType,
+            @RequestParam(required = false) String mode) {
+
+        log.debug("Fetching aggregate statistics - granularity: {}, from: {}, to: {}, type: {}, mode: {}",
+                granularity, createdFrom, createdTo, analysisType, mode);
+
+        var aggregateDTO = analysisAggregateService.getAggregates(
+                historyFilter(analysisType, mode, createdFrom, createdTo),
+                AnalysisAggregateService.Granularity.of(granularity));
+
+        return ResponseEntity.ok(analysisMapper.toGeneratedAggregateResponse(aggregateDTO));
+    }
+
+    @GetMapping("/statistics/characters")
+    public ResponseEntity<CharacterFrequenciesResponse> getCharacterFrequencies(
+            @RequestParam(defaultValue = "10") int limit) {
+
+        log.debug("Fetching character frequencies - limit: {}", limit);
+
+        var frequenciesDTO = characterFrequencyService.getTopCharacters(limit);
+
+        return ResponseEntity.ok(analysisMapper.toGeneratedFrequenciesResponse(frequenciesDTO));
+    }
+
+    @GetMapping("/statistics/traffic")
+    public ResponseEntity<TrafficStatisticsResponse> getTrafficStatistics(
+            @RequestParam(defaultValue = "5") int minutes) {
+
+        log.debug("Fetching traffic statistics - minutes: {}", minutes);
+
+        var trafficDTO = analysisTrafficWindow.query(Duration.ofMinutes(minutes));
+
+        return ResponseEntity.ok(analysisMapper.toGeneratedTrafficResponse(trafficDTO));
+    }
+
     @DeleteMapping("/history")
     public ResponseEntity<Map<String, String>> deleteAllHistory() {
         log.info("Deleting all analysis history");
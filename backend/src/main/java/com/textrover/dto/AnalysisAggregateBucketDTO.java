@@ -0,0 +1,27 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Rolled-up totals of the analyses of one type and mode within one time bucket.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisAggregateBucketDTO {
+
+    private OffsetDateTime bucketStart;
+    private String analysisType;
+    private String mode;
+    private long analyses;
+    private long totalTextLength;
+    private long totalLetters;
+    private long totalVowels;
+    private long totalConsonants;
+}
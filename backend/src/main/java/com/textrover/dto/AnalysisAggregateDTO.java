@@ -0,0 +1,24 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Aggregate statistics over a time range, one bucket per time slot, type and mode.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisAggregateDTO {
+
+    private String granularity;
+    private OffsetDateTime createdFrom;
+    private OffsetDateTime createdTo;
+    private List<AnalysisAggregateBucketDTO> buckets;
+}
@@ -0,0 +1,25 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one text within a batch analysis: either a response or an error.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisBatchItemDTO {
+
+    private int index;
+    private AnalysisResponseDTO response;
+    private String errorCode;
+    private String errorMessage;
+
+    public boolean isSuccessful() {
+        return response != null;
+    }
+}
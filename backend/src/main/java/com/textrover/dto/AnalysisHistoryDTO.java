@@ -16,6 +16,8 @@ public class AnalysisHistoryDTO {
     
     private Long id;
     private String inputText;
+    // Set when inputText is a preview cut short of the stored text
+    private Boolean textTruncated;
     private String analysisType;
     private String mode;
     private OffsetDateTime createdAt;
@@ -34,4 +36,7 @@ public class AnalysisHistoryDTO {
     
     // Character counts
     private Map<Character, Integer> characterCounts;
+
+    // Relevance of a search result; null outside search
+    private Float searchRank;
 }
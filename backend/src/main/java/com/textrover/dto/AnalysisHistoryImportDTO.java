@@ -0,0 +1,21 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk history import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisHistoryImportDTO {
+
+    private long imported;
+    private int chunks;
+    private long durationMillis;
+    private double rowsPerSecond;
+}
@@ -21,4 +21,10 @@ public class AnalysisHistoryPageDTO {
     private Boolean first;
     private Boolean last;
     private Boolean hasNext;
+    // Opaque keyset position of the last item, null on the last page
+    private String nextCursor;
+    // Whether totalElements is the planner estimate rather than an exact count
+    private Boolean totalEstimated;
+    // Whether a search left out matches beyond its ranked candidates, set on its last page
+    private Boolean searchTruncated;
 }
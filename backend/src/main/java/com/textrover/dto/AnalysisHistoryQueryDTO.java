@@ -0,0 +1,40 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Criteria for one page of history read through the keyset path.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisHistoryQueryDTO {
+
+    // Keyset position: only entries strictly older than (beforeCreatedAt, beforeId)
+    private OffsetDateTime beforeCreatedAt;
+    private Long beforeId;
+    private int limit;
+
+    // Search: only entries matching this text, ordered by relevance first; the keyset position
+    // then starts with beforeRank
+    private String search;
+    // Search: matches of each kind that are ranked at all
+    private int searchCandidates;
+    private Float beforeRank;
+
+    // Filters, each ignored when null; the creation range includes createdFrom and excludes createdTo
+    private String analysisType;
+    private String mode;
+    private OffsetDateTime createdFrom;
+    private OffsetDateTime createdTo;
+
+    // Preview mode: text cut to this many characters and only the most frequent characters; null for full entries
+    private Integer previewLength;
+    private Integer previewTopCharacters;
+}
@@ -19,4 +19,5 @@ public class AnalysisResponseDTO {
     private String text;
     private Map<Character, Integer> result;
     private AnalysisStatisticsDTO statistics;
+    private long totalCharacters;
 }
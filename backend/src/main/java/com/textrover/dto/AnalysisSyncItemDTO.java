@@ -0,0 +1,30 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One analysis computed by a client in offline mode and sent for recording.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisSyncItemDTO {
+
+    private UUID clientId;
+    private AnalysisRequestDTO request;
+    // The counts the client computed, compared against the server's; may be null
+    private Map<Character, Integer> clientResult;
+    private OffsetDateTime createdAt;
+    // Set when the item already failed request validation
+    private String rejection;
+    // Set once the server has recomputed the analysis
+    private AnalysisResponseDTO analysis;
+}
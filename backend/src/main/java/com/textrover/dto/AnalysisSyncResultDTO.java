@@ -0,0 +1,32 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * What happened to one synced analysis.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisSyncResultDTO {
+
+    public enum Status {
+        INSERTED,
+        DUPLICATE,
+        REJECTED
+    }
+
+    private UUID clientId;
+    private Status status;
+    // History id of the recorded result, for inserted and duplicate items
+    private Long id;
+    // Whether the client's counts agreed with the recomputed ones; null when not checked
+    private Boolean matchesClient;
+    private String error;
+}
@@ -0,0 +1,33 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Analysis traffic over a recent window, summed from the in-memory time slices.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisTrafficDTO {
+
+    private Duration window;
+    // Time actually covered by the counts, shorter than the window right after startup
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private long analyses;
+    private long vowelAnalyses;
+    private long consonantAnalyses;
+    private long totalTextLength;
+    private long totalLetters;
+    private long totalVowels;
+    private long totalConsonants;
+    private long totalDigits;
+    private long totalSymbols;
+}
@@ -0,0 +1,22 @@
+package com.textrover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The most frequent characters across all analyses, most frequent first.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CharacterFrequenciesDTO {
+
+    private long totalOccurrences;
+    private int distinctCharacters;
+    private List<CharacterFrequencyDTO> characters;
+}
@@ -1,6 +1,7 @@
 package com.textrover.entity;
 
 import jakarta.persistence.*;
+import java.time.OffsetDateTime;
 import java.util.Objects;
 
 /**
@@ -10,11 +11,15 @@ import java.util.Objects;
 @Table(name = "analysis_character_counts", schema = "textrover")
 public class AnalysisCharacterCountEntity {
 
+    // Pooled sequence (allocation matches the sequence increment) so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "analysis_character_counts_seq")
+    @SequenceGenerator(name = "analysis_character_counts_seq", sequenceName = "analysis_character_counts_seq",
+            schema = "textrover", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Lazy: the parent is always the entity that loaded this row, no need to select it again
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "analysis_result_id", nullable = false)
     private AnalysisResultEntity analysisResult;
 
@@ -24,6 +29,10 @@ public class AnalysisCharacterCountEntity {
     @Column(name = "count", nullable = false)
     private Integer count;
 
+    // Copy of the parent's creation time, the partition key of both history tables
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
     // Default constructor
     public AnalysisCharacterCountEntity() {
     }
@@ -35,6 +44,13 @@ public class AnalysisCharacterCountEntity {
         this.count = count;
     }
 
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null && analysisResult != null) {
+            createdAt = analysisResult.getCreatedAt();
+        }
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -68,6 +84,14 @@ public class AnalysisCharacterCountEntity {
         this.count = count;
     }
 
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Entity representing analysis results stored in the database.
@@ -12,8 +13,11 @@ import java.util.Objects;
 @Table(name = "analysis_results", schema = "textrover")
 public class AnalysisResultEntity {
 
+    // Pooled sequence (allocation matches the sequence increment) so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "analysis_results_seq")
+    @SequenceGenerator(name = "analysis_results_seq", sequenceName = "analysis_results_seq",
+            schema = "textrover", allocationSize = 50)
     private Long id;
 
     @Column(name = "input_text", nullable = false, columnDefinition = "TEXT")
@@ -58,6 +62,15 @@ public class AnalysisResultEntity {
     @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP")
     private OffsetDateTime createdAt;
 
+    // Packed (character, count) varint pairs; when set, the histogram has no character count rows
+    @Column(name = "character_histogram")
+    private byte[] characterHistogram;
+
+    // Id a client generated for a result it computed itself, so that re-sending it is a no-op;
+    // the unique index also covers created_at, since the table is partitioned by it
+    @Column(name = "client_id")
+    private UUID clientId;
+
     @OneToMany(mappedBy = "analysisResult", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
     private List<AnalysisCharacterCountEntity> characterCounts;
 
@@ -220,6 +233,22 @@ public class AnalysisResultEntity {
         this.characterCounts = characterCounts;
     }
 
+    public byte[] getCharacterHistogram() {
+        return characterHistogram;
+    }
+
+    public void setCharacterHistogram(byte[] characterHistogram) {
+        this.characterHistogram = characterHistogram;
+    }
+
+    public UUID getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(UUID clientId) {
+        this.clientId = clientId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,7 @@
+package com.textrover.exception;
+
+public class NotFoundException extends TextRoverException {
+    public NotFoundException(String message) {
+        super("NOT_FOUND", message);
+    }
+}
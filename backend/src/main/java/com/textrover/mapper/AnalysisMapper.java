@@ -1,21 +1,47 @@
 package com.textrover.mapper;
 
+import com.textrover.dto.AnalysisAggregateBucketDTO;
+import com.textrover.dto.AnalysisAggregateDTO;
+import com.textrover.dto.AnalysisBatchItemDTO;
 import com.textrover.dto.AnalysisRequestDTO;
 import com.textrover.dto.AnalysisResponseDTO;
 import com.textrover.dto.AnalysisStatisticsDTO;
+import com.textrover.dto.AnalysisSyncItemDTO;
+import com.textrover.dto.AnalysisSyncResultDTO;
 import com.textrover.dto.AnalysisTypeDTO;
 import com.textrover.dto.AnalysisHistoryDTO;
+import com.textrover.dto.AnalysisHistoryImportDTO;
 import com.textrover.dto.AnalysisHistoryPageDTO;
+import com.textrover.dto.AnalysisTrafficDTO;
+import com.textrover.dto.CharacterFrequenciesDTO;
+import com.textrover.dto.CharacterFrequencyDTO;
+import com.textrover.dto.generated.AnalysisBatchItem;
+import com.textrover.dto.generated.AggregateStatisticsBucket;
+import com.textrover.dto.generated.AggregateStatisticsResponse;
+import com.textrover.dto.generated.AnalysisBatchResponse;
 import com.textrover.dto.generated.AnalysisRequest;
 import com.textrover.dto.generated.AnalysisResponse;
 import com.textrover.dto.generated.AnalysisStatistics;
+import com.textrover.dto.generated.AnalysisSummaryResponse;
 import com.textrover.dto.generated.AnalysisType;
 import com.textrover.dto.generated.AnalysisHistoryResponse;
+import com.textrover.dto.generated.AnalysisHistoryImportResponse;
 import com.textrover.dto.generated.AnalysisHistoryItem;
+import com.textrover.dto.generated.CharacterFrequenciesResponse;
+import com.textrover.dto.generated.CharacterFrequency;
+import com.textrover.dto.generated.ErrorResponse;
+import com.textrover.dto.generated.HistorySyncItem;
+import com.textrover.dto.generated.HistorySyncResponse;
+import com.textrover.dto.generated.HistorySyncResult;
+import com.textrover.dto.generated.TrafficStatisticsResponse;
 import com.textrover.entity.AnalysisResultEntity;
 import com.textrover.entity.AnalysisCharacterCountEntity;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -67,6 +93,57 @@ public class AnalysisMapper {
         return response;
     }
 
+    /**
+     * Convert internal AnalysisResponseDTO to generated AnalysisSummaryResponse (no echoed text)
+     */
+    public AnalysisSummaryResponse toGeneratedSummary(AnalysisResponseDTO internal) {
+        if (internal == null) {
+            return null;
+        }
+
+        AnalysisSummaryResponse response = new AnalysisSummaryResponse();
+        if (internal.getType() != null) {
+            response.setType(AnalysisSummaryResponse.TypeEnum.fromValue(internal.getType().name().toLowerCase()));
+        }
+        response.setTotalCharacters(internal.getTotalCharacters());
+
+        if (internal.getResult() != null) {
+            Map<String, Integer> stringResult = internal.getResult().entrySet().stream()
+                    .collect(Collectors.toMap(
+                            entry -> entry.getKey().toString(),
+                            Map.Entry::getValue
+                    ));
+            response.setResult(stringResult);
+        }
+
+        response.setStatistics(toGenerated(internal.getStatistics()));
+        return response;
+    }
+
+    /**
+     * Convert internal batch outcomes to generated AnalysisBatchResponse
+     */
+    public AnalysisBatchResponse toGeneratedBatchResponse(List<AnalysisBatchItemDTO> items) {
+        AnalysisBatchResponse response = new AnalysisBatchResponse();
+        int succeeded = 0;
+        for (AnalysisBatchItemDTO item : items) {
+            AnalysisBatchItem generated = new AnalysisBatchItem().index(item.getIndex());
+            if (item.isSuccessful()) {
+                generated.setResult(toGenerated(item.getResponse()));
+                succeeded++;
+            } else {
+                generated.setError(new ErrorResponse()
+                        .error(item.getErrorCode())
+                        .message(item.getErrorMessage())
+                        .timestamp(OffsetDateTime.now()));
+            }
+            response.addResultsItem(generated);
+        }
+        response.setSucceeded(succeeded);
+        response.setFailed(items.size() - succeeded);
+        return response;
+    }
+
     /**
      * Convert generated AnalysisType to internal AnalysisTypeInternal
      */
@@ -146,12 +223,14 @@ public class AnalysisMapper {
             return null;
         }
 
-        // Convert character counts from entities to map
-        Map<Character, Integer> characterCounts = entity.getCharacterCounts().stream()
-                .collect(Collectors.toMap(
-                        AnalysisCharacterCountEntity::getCharacter,
-                        AnalysisCharacterCountEntity::getCount
-                ));
+        // Decode the packed histogram column, or collect the character count rows for older entries
+        Map<Character, Integer> characterCounts = entity.getCharacterHistogram() != null
+                ? CharacterHistogramCodec.decode(entity.getCharacterHistogram())
+                : entity.getCharacterCounts().stream()
+                        .collect(Collectors.toMap(
+                                AnalysisCharacterCountEntity::getCharacter,
+                                AnalysisCharacterCountEntity::getCount
+                        ));
 
         return AnalysisHistoryDTO.builder()
                 .id(entity.getId())
@@ -184,6 +263,7 @@ public class AnalysisMapper {
         AnalysisHistoryItem item = new AnalysisHistoryItem();
         item.setId(dto.getId());
         item.setInputText(dto.getInputText());
+        item.setTextTruncated(dto.getTextTruncated());
         
         // Convert analysis type string to enum
         if (dto.getAnalysisType() != null) {
@@ -228,6 +308,205 @@ public class AnalysisMapper {
         return item;
     }
 
+    /**
+     * Convert AnalysisHistoryItem (generated) to AnalysisHistoryDTO, e.g. for an import
+     */
+    public AnalysisHistoryDTO toInternal(AnalysisHistoryItem item) {
+        if (item == null) {
+            return null;
+        }
+
+        AnalysisHistoryDTO.AnalysisHistoryDTOBuilder builder = AnalysisHistoryDTO.builder()
+                .id(item.getId())
+                .inputText(item.getInputText())
+                .analysisType(item.getAnalysisType() != null ? item.getAnalysisType().getValue().toUpperCase() : null)
+                .mode(item.getMode() != null ? item.getMode().getValue() : null)
+                .createdAt(item.getCreatedAt());
+
+        if (item.getCharacterCounts() != null) {
+            Map<Character, Integer> characterCounts = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : item.getCharacterCounts().entrySet()) {
+                if (entry.getKey().length() != 1) {
+                    throw new IllegalArgumentException("Character count key must be a single character: " + entry.getKey());
+                }
+                characterCounts.put(entry.getKey().charAt(0), entry.getValue());
+            }
+            builder.characterCounts(characterCounts);
+        }
+
+        AnalysisStatistics stats = item.getStatistics();
+        if (stats != null) {
+            builder.totalLetters(stats.getTotalLetters())
+                    .totalVowels(stats.getTotalVowels())
+                    .totalConsonants(stats.getTotalConsonants())
+                    .totalDigits(stats.getTotalDigits())
+                    .totalSymbols(stats.getTotalSymbols())
+                    .wordCount(stats.getWordCount())
+                    .vowelPercentage(stats.getVowelPercentage())
+                    .consonantPercentage(stats.getConsonantPercentage())
+                    .mostFrequentCharacter(stats.getMostFrequentCharacter() != null && !stats.getMostFrequentCharacter().isEmpty()
+                            ? stats.getMostFrequentCharacter().charAt(0) : null)
+                    .mostFrequentCount(stats.getMostFrequentCount());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Convert HistorySyncItem (generated) to AnalysisSyncItemDTO
+     */
+    public AnalysisSyncItemDTO toInternal(HistorySyncItem item) {
+        if (item == null) {
+            return null;
+        }
+
+        AnalysisRequestDTO request = new AnalysisRequestDTO();
+        request.setType(toInternal(item.getType()));
+        request.setText(item.getText());
+
+        AnalysisSyncItemDTO syncItem = AnalysisSyncItemDTO.builder()
+                .clientId(item.getClientId())
+                .request(request)
+                .createdAt(item.getCreatedAt())
+                .build();
+
+        // The generated model defaults an absent result to an empty map, which is then not compared
+        if (item.getResult() != null && !item.getResult().isEmpty()) {
+            Map<Character, Integer> clientResult = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : item.getResult().entrySet()) {
+                if (entry.getKey().length() != 1) {
+                    syncItem.setRejection("Result keys must be single characters: " + entry.getKey());
+                    break;
+                }
+                clientResult.put(entry.getKey().charAt(0), entry.getValue());
+            }
+            syncItem.setClientResult(clientResult);
+        }
+        return syncItem;
+    }
+
+    /**
+     * Convert per-item sync outcomes to HistorySyncResponse (generated)
+     */
+    public HistorySyncResponse toGeneratedSyncResponse(List<AnalysisSyncResultDTO> results) {
+        HistorySyncResponse response = new HistorySyncResponse();
+        int inserted = 0;
+        int duplicates = 0;
+        int rejected = 0;
+        for (AnalysisSyncResultDTO result : results) {
+            switch (result.getStatus()) {
+                case INSERTED -> inserted++;
+                case DUPLICATE -> duplicates++;
+                case REJECTED -> rejected++;
+            }
+            HistorySyncResult item = new HistorySyncResult();
+            item.setClientId(result.getClientId());
+            item.setStatus(HistorySyncResult.StatusEnum.fromValue(result.getStatus().name().toLowerCase()));
+            item.setId(result.getId());
+            item.setMatchesClient(result.getMatchesClient());
+            item.setError(result.getError());
+            response.addResultsItem(item);
+        }
+        response.setInserted(inserted);
+        response.setDuplicates(duplicates);
+        response.setRejected(rejected);
+        return response;
+    }
+
+    /**
+     * Convert AnalysisHistoryImportDTO to AnalysisHistoryImportResponse (generated)
+     */
+    public AnalysisHistoryImportResponse toGeneratedImportResponse(AnalysisHistoryImportDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+
+        AnalysisHistoryImportResponse response = new AnalysisHistoryImportResponse();
+        response.setImported(dto.getImported());
+        response.setChunks(dto.getChunks());
+        response.setDurationMillis(dto.getDurationMillis());
+        response.setRowsPerSecond(dto.getRowsPerSecond());
+        return response;
+    }
+
+    /**
+     * Convert AnalysisAggregateDTO to AggregateStatisticsResponse (generated)
+     */
+    public AggregateStatisticsResponse toGeneratedAggregateResponse(AnalysisAggregateDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+
+        AggregateStatisticsResponse response = new AggregateStatisticsResponse();
+        response.setGranularity(AggregateStatisticsResponse.GranularityEnum.fromValue(dto.getGranularity()));
+        response.setCreatedFrom(dto.getCreatedFrom());
+        response.setCreatedTo(dto.getCreatedTo());
+        response.setBuckets(new ArrayList<>(dto.getBuckets().size()));
+        for (AnalysisAggregateBucketDTO bucket : dto.getBuckets()) {
+            AggregateStatisticsBucket item = new AggregateStatisticsBucket();
+            item.setBucketStart(bucket.getBucketStart());
+            item.setAnalysisType(AnalysisType.fromValue(bucket.getAnalysisType()));
+            item.setMode(bucket.getMode());
+            item.setAnalyses(bucket.getAnalyses());
+            item.setAverageTextLength(bucket.getAnalyses() > 0
+                    ? (double) bucket.getTotalTextLength() / bucket.getAnalyses() : 0.0);
+            item.setVowelPercentage(bucket.getTotalLetters() > 0
+                    ? bucket.getTotalVowels() * 100.0 / bucket.getTotalLetters() : 0.0);
+            item.setConsonantPercentage(bucket.getTotalLetters() > 0
+                    ? bucket.getTotalConsonants() * 100.0 / bucket.getTotalLetters() : 0.0);
+            response.addBucketsItem(item);
+        }
+        return response;
+    }
+
+    /**
+     * Convert CharacterFrequenciesDTO to CharacterFrequenciesResponse (generated)
+     */
+    public CharacterFrequenciesResponse toGeneratedFrequenciesResponse(CharacterFrequenciesDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+
+        CharacterFrequenciesResponse response = new CharacterFrequenciesResponse();
+        response.setTotalOccurrences(dto.getTotalOccurrences());
+        response.setDistinctCharacters(dto.getDistinctCharacters());
+        response.setCharacters(new ArrayList<>(dto.getCharacters().size()));
+        for (CharacterFrequencyDTO frequency : dto.getCharacters()) {
+            CharacterFrequency item = new CharacterFrequency();
+            item.setCharacter(String.valueOf(frequency.getCharacter()));
+            item.setCount(frequency.getCount());
+            response.addCharactersItem(item);
+        }
+        return response;
+    }
+
+    /**
+     * Convert AnalysisTrafficDTO to TrafficStatisticsResponse (generated)
+     */
+    public TrafficStatisticsResponse toGeneratedTrafficResponse(AnalysisTrafficDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+
+        long coveredMillis = Duration.between(dto.getFrom(), dto.getTo()).toMillis();
+        TrafficStatisticsResponse response = new TrafficStatisticsResponse();
+        response.setMinutes((int) dto.getWindow().toMinutes());
+        response.setFrom(dto.getFrom());
+        response.setTo(dto.getTo());
+        response.setAnalyses(dto.getAnalyses());
+        response.setAnalysesPerMinute(coveredMillis > 0 ? dto.getAnalyses() * 60_000.0 / coveredMillis : 0.0);
+        response.setVowelAnalyses(dto.getVowelAnalyses());
+        response.setConsonantAnalyses(dto.getConsonantAnalyses());
+        response.setAverageTextLength(dto.getAnalyses() > 0 ? (double) dto.getTotalTextLength() / dto.getAnalyses() : 0.0);
+        response.setTotalLetters(dto.getTotalLetters());
+        response.setTotalVowels(dto.getTotalVowels());
+        response.setTotalConsonants(dto.getTotalConsonants());
+        response.setTotalDigits(dto.getTotalDigits());
+        response.setTotalSymbols(dto.getTotalSymbols());
+        response.setVowelPercentage(dto.getTotalLetters() > 0 ? dto.getTotalVowels() * 100.0 / dto.getTotalLetters() : 0.0);
+        return response;
+    }
+
     /**
      * Convert AnalysisHistoryPageDTO to AnalysisHistoryResponse (generated)
      */
@@ -252,6 +531,9 @@ public class AnalysisMapper {
         response.setFirst(pageDTO.getFirst());
         response.setLast(pageDTO.getLast());
         response.setHasNext(pageDTO.getHasNext());
+        response.setNextCursor(pageDTO.getNextCursor());
+        response.setTotalEstimated(pageDTO.getTotalEstimated());
+        response.setSearchTruncated(pageDTO.getSearchTruncated());
 
         return response;
     }
@@ -0,0 +1,67 @@
+package com.textrover.mapper;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Packed binary form of a character histogram as stored in
+ * {@code analysis_results.character_histogram}: a sequence of (character, count) pairs
+ * in ascending character order, each number written as an unsigned LEB128 varint.
+ * A typical histogram of a few dozen characters fits in well under a hundred bytes.
+ */
+public final class CharacterHistogramCodec {
+
+    private CharacterHistogramCodec() {
+    }
+
+    public static byte[] encode(Map<Character, Integer> counts) {
+        char[] characters = new char[counts.size()];
+        int n = 0;
+        for (Character c : counts.keySet()) {
+            characters[n++] = c;
+        }
+        Arrays.sort(characters);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(characters.length * 3);
+        for (char c : characters) {
+            writeVarint(out, c);
+            writeVarint(out, counts.get(c));
+        }
+        return out.toByteArray();
+    }
+
+    public static Map<Character, Integer> decode(byte[] packed) {
+        Map<Character, Integer> counts = new HashMap<>();
+        int[] position = {0};
+        while (position[0] < packed.length) {
+            char c = (char) readVarint(packed, position);
+            counts.put(c, readVarint(packed, position));
+        }
+        return counts;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] packed, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position[0] >= packed.length) {
+                throw new IllegalArgumentException("Truncated character histogram");
+            }
+            b = packed[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,81 @@
+package com.textrover.repository;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisHistoryDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole history, or the part matching a filter, as a stream of entries. The
+ * rows are fetched through a server-side cursor in chunks of the configured fetch size,
+ * so memory does not grow with the table. Histograms stored as rows are aggregated per
+ * entry in the same query.
+ */
+@Repository
+public class AnalysisHistoryExportRepository {
+
+    private static final String SELECT_ENTRIES = "SELECT input_text, false AS text_truncated, "
+            + AnalysisHistoryQueryRepository.SCALAR_COLUMNS + ", h.characters, h.counts"
+            + "\nFROM textrover.analysis_results r"
+            + "\nLEFT JOIN LATERAL ("
+            + "\n    SELECT array_agg(c.character ORDER BY c.character) AS characters,"
+            + "\n        array_agg(c.count ORDER BY c.character) AS counts"
+            + "\n    FROM textrover.analysis_character_counts c"
+            + "\n    WHERE c.analysis_result_id = r.id AND c.created_at = r.created_at AND r.character_histogram IS NULL"
+            + "\n) h ON true\n";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AnalysisHistoryExportRepository(DataSource dataSource, AnalysisProperties analysisProperties) {
+        // A template of its own, so the fetch size does not apply to ordinary queries
+        JdbcTemplate streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(analysisProperties.getHistory().getExportFetchSize());
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(streamingTemplate);
+    }
+
+    /**
+     * Pass every entry matching the filter to {@code consumer}, oldest first. Must run
+     * inside a transaction, which is what lets the driver keep a cursor open instead of
+     * reading the complete result up front.
+     */
+    public void streamAll(AnalysisHistoryQueryDTO filter, Consumer<AnalysisHistoryDTO> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(SELECT_ENTRIES);
+        AnalysisHistoryQueryRepository.appendWhere(sql, AnalysisHistoryQueryRepository.filterConditions(filter, params));
+        sql.append("ORDER BY created_at, id");
+
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            AnalysisHistoryDTO entry = AnalysisHistoryQueryRepository.toHistoryDTO(rs, null);
+            if (entry.getCharacterCounts() == null) {
+                entry.setCharacterCounts(characterCounts(rs));
+            }
+            consumer.accept(entry);
+        });
+    }
+
+    private static Map<Character, Integer> characterCounts(ResultSet rs) throws SQLException {
+        Map<Character, Integer> counts = new HashMap<>();
+        Array characters = rs.getArray("characters");
+        Array values = rs.getArray("counts");
+        if (characters == null || values == null) {
+            return counts;
+        }
+        String[] characterArray = (String[]) characters.getArray();
+        Integer[] valueArray = (Integer[]) values.getArray();
+        for (int i = 0; i < characterArray.length; i++) {
+            counts.put(characterArray[i].charAt(0), valueArray[i]);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,349 @@
+package com.textrover.repository;
+
+import com.textrover.dto.AnalysisHistoryDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import com.textrover.mapper.CharacterHistogramCodec;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Read side of the history: selects scalar columns straight into {@link AnalysisHistoryDTO}
+ * without materialising entity graphs, and loads the histograms of a whole page with a
+ * single {@code IN (...)} query. A page therefore costs two queries at most.
+ */
+@Repository
+public class AnalysisHistoryQueryRepository {
+
+    static final String SCALAR_COLUMNS = """
+            id, analysis_type, mode, created_at, total_letters, total_vowels, total_consonants,
+                total_digits, total_symbols, word_count, vowel_percentage, consonant_percentage,
+                most_frequent_character, most_frequent_count, character_histogram""";
+
+    private static final String SELECT_ENTRY = "SELECT input_text, false AS text_truncated, " + SCALAR_COLUMNS
+            + "\nFROM textrover.analysis_results\nWHERE id = :id";
+
+    private static final String SELECT_CHARACTER_COUNTS = """
+            SELECT analysis_result_id, character, count
+            FROM textrover.analysis_character_counts
+            WHERE analysis_result_id IN (:ids) AND created_at BETWEEN :createdFrom AND :createdTo
+            """;
+
+    // Only the most frequent characters of each entry, ties broken by character
+    private static final String SELECT_TOP_CHARACTER_COUNTS = """
+            SELECT analysis_result_id, character, count
+            FROM (
+                SELECT analysis_result_id, character, count,
+                    row_number() OVER (PARTITION BY analysis_result_id ORDER BY count DESC, character) AS rank
+                FROM textrover.analysis_character_counts
+                WHERE analysis_result_id IN (:ids) AND created_at BETWEEN :createdFrom AND :createdTo
+            ) ranked
+            WHERE rank <= :top
+            """;
+
+    // Full-text words, a substring or a close resemblance (pg_trgm word similarity) make a
+    // match. Each kind contributes a bounded set of candidates, read in index order: the newest
+    // entries with the words or the substring and the entries that resemble the search most.
+    // Only those are ranked.
+    private static final String SEARCH_CANDIDATES = """
+            (SELECT id, created_at
+            FROM textrover.analysis_results
+            WHERE search_vector @@ websearch_to_tsquery('simple', :search)%1$s
+            ORDER BY created_at DESC, id DESC
+            LIMIT :candidates)
+            UNION
+            (SELECT id, created_at
+            FROM textrover.analysis_results
+            WHERE input_text ILIKE :pattern%1$s
+            ORDER BY created_at DESC, id DESC
+            LIMIT :candidates)
+            UNION
+            (SELECT id, created_at
+            FROM textrover.analysis_results
+            WHERE :search <%% input_text%1$s
+            ORDER BY :search <<-> input_text
+            LIMIT :candidates)""";
+
+    // Any kind with more matches than candidates; each probe stops after candidates + 1 rows
+    private static final String SEARCH_TRUNCATED = """
+            SELECT EXISTS (SELECT 1 FROM textrover.analysis_results
+                    WHERE search_vector @@ websearch_to_tsquery('simple', :search)%1$s OFFSET :candidates)
+                OR EXISTS (SELECT 1 FROM textrover.analysis_results
+                    WHERE input_text ILIKE :pattern%1$s OFFSET :candidates)
+                OR EXISTS (SELECT 1 FROM textrover.analysis_results
+                    WHERE :search <%% input_text%1$s OFFSET :candidates)""";
+
+    private static final String SEARCH_MATCHES = """
+            SELECT input_text, %s,
+                ts_rank(search_vector, search_query) + word_similarity(:search, input_text) AS rank
+            FROM (
+            %%s
+            ) candidates
+            JOIN textrover.analysis_results USING (id, created_at),
+                websearch_to_tsquery('simple', :search) AS search_query
+            """.formatted(SCALAR_COLUMNS);
+
+    // Top plan node of EXPLAIN output, e.g. "Seq Scan on analysis_results  (cost=0.00..1.05 rows=5 width=4)"
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AnalysisHistoryQueryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Up to {@code query.limit} entries matching the query's filters, ordered by
+     * (created_at, id) descending, starting strictly after the query's keyset position,
+     * or from the newest entry when it has none. Entries whose histogram is stored as
+     * rows come back with null character counts; see
+     * {@link #loadCharacterCounts(List, Integer)}.
+     */
+    public List<AnalysisHistoryDTO> findPage(AnalysisHistoryQueryDTO query) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", query.getLimit());
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (query.getPreviewLength() != null) {
+            // Cut the text in the database so the full value is never shipped
+            sql.append("left(input_text, :previewLength) AS input_text, ")
+                    .append("char_length(input_text) > :previewLength AS text_truncated, ");
+            params.addValue("previewLength", query.getPreviewLength());
+        } else {
+            sql.append("input_text, false AS text_truncated, ");
+        }
+        sql.append(SCALAR_COLUMNS).append("\nFROM textrover.analysis_results\n");
+
+        List<String> conditions = filterConditions(query, params);
+        if (query.getBeforeCreatedAt() != null) {
+            conditions.add("(created_at, id) < (:createdAt, :id)");
+            params.addValue("createdAt", query.getBeforeCreatedAt()).addValue("id", query.getBeforeId());
+        }
+        appendWhere(sql, conditions);
+        sql.append("ORDER BY created_at DESC, id DESC\nLIMIT :limit");
+
+        Integer top = query.getPreviewTopCharacters();
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> toHistoryDTO(rs, top));
+    }
+
+    /**
+     * Up to {@code query.limit} entries matching {@code query.search} and the query's
+     * filters, ordered by rank, then (created_at, id), all descending, and starting strictly
+     * after the query's keyset position. Only the {@code query.searchCandidates} newest word
+     * matches, found through the GIN index on search_vector, as many newest substring
+     * matches and as many closest resemblances, both found through the GiST trigram index
+     * on input_text, are ranked; see {@link #isSearchTruncated(AnalysisHistoryQueryDTO)}.
+     */
+    public List<AnalysisHistoryDTO> findSearchPage(AnalysisHistoryQueryDTO query) {
+        MapSqlParameterSource params = searchParams(query).addValue("limit", query.getLimit());
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (query.getPreviewLength() != null) {
+            sql.append("left(input_text, :previewLength) AS input_text, ")
+                    .append("char_length(input_text) > :previewLength AS text_truncated, ");
+            params.addValue("previewLength", query.getPreviewLength());
+        } else {
+            sql.append("input_text, false AS text_truncated, ");
+        }
+        String candidates = SEARCH_CANDIDATES.formatted(searchFilters(query, params));
+        sql.append(SCALAR_COLUMNS).append(", rank\nFROM (\n").append(SEARCH_MATCHES.formatted(candidates))
+                .append(") matches\n");
+        if (query.getBeforeRank() != null) {
+            sql.append("WHERE (rank, created_at, id) < (CAST(:rank AS real), :createdAt, :id)\n");
+            params.addValue("rank", query.getBeforeRank())
+                    .addValue("createdAt", query.getBeforeCreatedAt())
+                    .addValue("id", query.getBeforeId());
+        }
+        sql.append("ORDER BY rank DESC, created_at DESC, id DESC\nLIMIT :limit");
+
+        Integer top = query.getPreviewTopCharacters();
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> {
+            AnalysisHistoryDTO entry = toHistoryDTO(rs, top);
+            entry.setSearchRank(rs.getFloat("rank"));
+            return entry;
+        });
+    }
+
+    /**
+     * Whether some kind of match has more entries than {@code query.searchCandidates}
+     * within the query's filters, so that {@link #findSearchPage(AnalysisHistoryQueryDTO)}
+     * leaves matches out. Ignores the keyset position.
+     */
+    public boolean isSearchTruncated(AnalysisHistoryQueryDTO query) {
+        MapSqlParameterSource params = searchParams(query);
+        String sql = SEARCH_TRUNCATED.formatted(searchFilters(query, params));
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, params, Boolean.class));
+    }
+
+    /**
+     * Exact number of entries matching the query's filters, ignoring its keyset position.
+     */
+    public long count(AnalysisHistoryQueryDTO query) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder("SELECT count(*) FROM textrover.analysis_results\n");
+        appendWhere(sql, filterConditions(query, params));
+        Long count = jdbcTemplate.queryForObject(sql.toString(), params, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * The planner's row estimate for the query's filters, read from EXPLAIN without
+     * running the count.
+     */
+    public long estimateCount(AnalysisHistoryQueryDTO query) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder("EXPLAIN SELECT 1 FROM textrover.analysis_results\n");
+        appendWhere(sql, filterConditions(query, params));
+        List<String> plan = jdbcTemplate.queryForList(sql.toString(), params, String.class);
+        Matcher rows = PLAN_ROWS.matcher(plan.isEmpty() ? "" : plan.get(0));
+        return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+    }
+
+    public Optional<AnalysisHistoryDTO> findById(long id) {
+        List<AnalysisHistoryDTO> entries = jdbcTemplate.query(SELECT_ENTRY, new MapSqlParameterSource("id", id),
+                (rs, rowNum) -> toHistoryDTO(rs, null));
+        loadCharacterCounts(entries, null);
+        return entries.stream().findFirst();
+    }
+
+    /**
+     * Fill in the character counts of every entry that does not have them yet, using one
+     * query for all of them. With {@code top} set only that many of the most frequent
+     * characters are loaded per entry.
+     */
+    public void loadCharacterCounts(List<AnalysisHistoryDTO> entries, Integer top) {
+        Map<Long, AnalysisHistoryDTO> pending = new HashMap<>();
+        OffsetDateTime createdFrom = null;
+        OffsetDateTime createdTo = null;
+        for (AnalysisHistoryDTO entry : entries) {
+            if (entry.getCharacterCounts() == null) {
+                entry.setCharacterCounts(new HashMap<>());
+                pending.put(entry.getId(), entry);
+                if (createdFrom == null || entry.getCreatedAt().isBefore(createdFrom)) {
+                    createdFrom = entry.getCreatedAt();
+                }
+                if (createdTo == null || entry.getCreatedAt().isAfter(createdTo)) {
+                    createdTo = entry.getCreatedAt();
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // The creation range of the entries limits the scan to the partitions they live in
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", new ArrayList<>(pending.keySet()))
+                .addValue("createdFrom", createdFrom)
+                .addValue("createdTo", createdTo);
+        String sql = SELECT_CHARACTER_COUNTS;
+        if (top != null) {
+            sql = SELECT_TOP_CHARACTER_COUNTS;
+            params.addValue("top", top);
+        }
+        jdbcTemplate.query(sql, params, rs -> {
+            pending.get(rs.getLong("analysis_result_id")).getCharacterCounts()
+                    .put(rs.getString("character").charAt(0), rs.getInt("count"));
+        });
+    }
+
+    private static MapSqlParameterSource searchParams(AnalysisHistoryQueryDTO query) {
+        return new MapSqlParameterSource("search", query.getSearch())
+                .addValue("pattern", "%" + escapeLike(query.getSearch()) + "%")
+                .addValue("candidates", query.getSearchCandidates());
+    }
+
+    // The filter conditions, each on its own line, to append to a search branch's WHERE
+    private static String searchFilters(AnalysisHistoryQueryDTO query, MapSqlParameterSource params) {
+        StringBuilder filters = new StringBuilder();
+        for (String condition : filterConditions(query, params)) {
+            filters.append("\n  AND ").append(condition);
+        }
+        return filters.toString();
+    }
+
+    // Backslash is the default LIKE escape character
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Each filter leads one of the (column, created_at DESC, id DESC) indexes
+    static List<String> filterConditions(AnalysisHistoryQueryDTO query, MapSqlParameterSource params) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getAnalysisType() != null) {
+            conditions.add("analysis_type = :analysisType");
+            params.addValue("analysisType", query.getAnalysisType());
+        }
+        if (query.getMode() != null) {
+            conditions.add("mode = :mode");
+            params.addValue("mode", query.getMode());
+        }
+        if (query.getCreatedFrom() != null) {
+            conditions.add("created_at >= :createdFrom");
+            params.addValue("createdFrom", query.getCreatedFrom());
+        }
+        if (query.getCreatedTo() != null) {
+            conditions.add("created_at < :createdTo");
+            params.addValue("createdTo", query.getCreatedTo());
+        }
+        return conditions;
+    }
+
+    static void appendWhere(StringBuilder sql, List<String> conditions) {
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join("\n  AND ", conditions)).append('\n');
+        }
+    }
+
+    static AnalysisHistoryDTO toHistoryDTO(ResultSet rs, Integer top) throws SQLException {
+        String mostFrequentCharacter = rs.getString("most_frequent_character");
+        byte[] histogram = rs.getBytes("character_histogram");
+        Map<Character, Integer> characterCounts = null;
+        if (histogram != null) {
+            characterCounts = CharacterHistogramCodec.decode(histogram);
+            if (top != null) {
+                characterCounts = mostFrequent(characterCounts, top);
+            }
+        }
+        return AnalysisHistoryDTO.builder()
+                .id(rs.getLong("id"))
+                .inputText(rs.getString("input_text"))
+                .textTruncated(rs.getBoolean("text_truncated"))
+                .analysisType(rs.getString("analysis_type"))
+                .mode(rs.getString("mode"))
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+                .totalLetters(rs.getInt("total_letters"))
+                .totalVowels(rs.getInt("total_vowels"))
+                .totalConsonants(rs.getInt("total_consonants"))
+                .totalDigits(rs.getInt("total_digits"))
+                .totalSymbols(rs.getInt("total_symbols"))
+                .wordCount(rs.getInt("word_count"))
+                .vowelPercentage(rs.getDouble("vowel_percentage"))
+                .consonantPercentage(rs.getDouble("consonant_percentage"))
+                .mostFrequentCharacter(mostFrequentCharacter == null || mostFrequentCharacter.isEmpty()
+                        ? null : mostFrequentCharacter.charAt(0))
+                .mostFrequentCount(rs.getObject("most_frequent_count", Integer.class))
+                .characterCounts(characterCounts)
+                .build();
+    }
+
+    // Same ranking as SELECT_TOP_CHARACTER_COUNTS, for histograms decoded from the packed column
+    private static Map<Character, Integer> mostFrequent(Map<Character, Integer> counts, int top) {
+        Map<Character, Integer> result = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<Character, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(top)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+}
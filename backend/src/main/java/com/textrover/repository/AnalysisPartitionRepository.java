@@ -0,0 +1,91 @@
+package com.textrover.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * DDL for the range partitions of the history tables. Both tables are partitioned by
+ * {@code created_at} with identical bounds, and partition {@code <suffix>} of one always
+ * comes with partition {@code <suffix>} of the other, so every operation here applies to
+ * the pair. Rows outside every range go to the default partitions.
+ */
+@Repository
+public class AnalysisPartitionRepository {
+
+    private static final String RESULTS_TABLE = "analysis_results";
+    private static final String COUNTS_TABLE = "analysis_character_counts";
+
+    // Bounds are read back from the partition definition, e.g. FOR VALUES FROM ('...') TO ('...')
+    private static final String SELECT_PARTITIONS = """
+            SELECT substring(c.relname FROM length('analysis_results_') + 1) AS suffix,
+                substring(pg_get_expr(c.relpartbound, c.oid) FROM 'FROM \\(''([^'']+)''\\)')::timestamptz AS range_from,
+                substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \\(''([^'']+)''\\)')::timestamptz AS range_to
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'textrover.analysis_results'::regclass
+                AND pg_get_expr(c.relpartbound, c.oid) <> 'DEFAULT'
+            ORDER BY range_from
+            """;
+
+    // Client ids of synced results stay unique in their own table and leave with the partition
+    private static final String DELETE_SYNCED_CLIENT_IDS =
+            "DELETE FROM textrover.synced_client_ids WHERE created_at >= ? AND created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Partition(String suffix, OffsetDateTime from, OffsetDateTime to) {
+    }
+
+    public AnalysisPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The range partitions of the history, oldest first; the default partition is not included
+     */
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.query(SELECT_PARTITIONS, (rs, rowNum) -> new Partition(
+                rs.getString("suffix"),
+                rs.getObject("range_from", OffsetDateTime.class),
+                rs.getObject("range_to", OffsetDateTime.class)));
+    }
+
+    /**
+     * Create the partition pair covering [from, to). Fails if the default partitions already
+     * hold rows in that range.
+     */
+    @Transactional
+    public void createPartition(String suffix, OffsetDateTime from, OffsetDateTime to) {
+        for (String table : List.of(RESULTS_TABLE, COUNTS_TABLE)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS textrover." + table + "_" + suffix
+                    + " PARTITION OF textrover." + table
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        }
+    }
+
+    /**
+     * Drop the partition pair with all of its rows
+     */
+    @Transactional
+    public void dropPartition(Partition partition) {
+        jdbcTemplate.update(DELETE_SYNCED_CLIENT_IDS, partition.from(), partition.to());
+        jdbcTemplate.execute("DROP TABLE IF EXISTS textrover." + COUNTS_TABLE + "_" + partition.suffix()
+                + ", textrover." + RESULTS_TABLE + "_" + partition.suffix());
+    }
+
+    /**
+     * Detach the partition pair, leaving both as standalone tables
+     */
+    @Transactional
+    public void detachPartition(Partition partition) {
+        jdbcTemplate.update(DELETE_SYNCED_CLIENT_IDS, partition.from(), partition.to());
+        for (String table : List.of(COUNTS_TABLE, RESULTS_TABLE)) {
+            jdbcTemplate.execute("ALTER TABLE textrover." + table
+                    + " DETACH PARTITION textrover." + table + "_" + partition.suffix());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.textrover.repository;
+
+import com.textrover.entity.AnalysisCharacterCountEntity;
+import com.textrover.entity.AnalysisResultEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC writer that stores many analysis results with two batched statements:
+ * one for all parent rows and one for all of their character counts. Ids are taken
+ * up front from the same pooled sequences Hibernate uses, so neither statement has to
+ * return generated keys and the driver is free to rewrite both into multi-row inserts.
+ */
+@Repository
+public class AnalysisResultBatchRepository {
+
+    private static final String INSERT_RESULT = """
+            INSERT INTO textrover.analysis_results (id, input_text, analysis_type, mode, total_letters, total_vowels,
+                total_consonants, total_digits, total_symbols, word_count, vowel_percentage, consonant_percentage,
+                most_frequent_character, most_frequent_count, created_at, character_histogram, client_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_CHARACTER_COUNT =
+            "INSERT INTO textrover.analysis_character_counts (id, analysis_result_id, created_at, character, count) VALUES (?, ?, ?, ?, ?)";
+
+    // One nextval per block of ids; each value is the low end of a block, as with Hibernate's pooled-lo optimizer
+    private static final String NEXT_ID_BLOCKS = "SELECT nextval(?::regclass) FROM generate_series(1, ?)";
+
+    // Must match the increment of the sequences and the allocationSize of the entities
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnalysisResultBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert the given results and their character counts, assigning the ids back onto
+     * the entities. Results that already have an id keep it. Must run inside the caller's
+     * transaction.
+     */
+    public void insertAll(List<AnalysisResultEntity> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        List<AnalysisCharacterCountEntity> counts = new ArrayList<>();
+        for (AnalysisResultEntity result : results) {
+            if (result.getCharacterCounts() != null) {
+                counts.addAll(result.getCharacterCounts());
+            }
+        }
+
+        assignIds(results);
+        long[] countIds = allocateIds("textrover.analysis_character_counts_seq", counts.size());
+        for (int i = 0; i < counts.size(); i++) {
+            counts.get(i).setId(countIds[i]);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RESULT, results, results.size(), AnalysisResultBatchRepository::setResultValues);
+        jdbcTemplate.batchUpdate(INSERT_CHARACTER_COUNT, counts, counts.size(), (ps, count) -> {
+            ps.setLong(1, count.getId());
+            ps.setLong(2, count.getAnalysisResult().getId());
+            ps.setObject(3, count.getAnalysisResult().getCreatedAt());
+            ps.setString(4, String.valueOf(count.getCharacter()));
+            ps.setInt(5, count.getCount());
+        });
+    }
+
+    /**
+     * Assign ids from the results sequence to the results that have none yet, so callers
+     * can refer to them before they are inserted.
+     */
+    public void assignIds(List<AnalysisResultEntity> results) {
+        List<AnalysisResultEntity> unassigned = new ArrayList<>();
+        for (AnalysisResultEntity result : results) {
+            if (result.getId() == null) {
+                unassigned.add(result);
+            }
+        }
+        long[] ids = allocateIds("textrover.analysis_results_seq", unassigned.size());
+        for (int i = 0; i < unassigned.size(); i++) {
+            unassigned.get(i).setId(ids[i]);
+        }
+    }
+
+    /**
+     * Take {@code count} ids from the given pooled sequence, one nextval per block.
+     */
+    long[] allocateIds(String sequence, int count) {
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(NEXT_ID_BLOCKS, Long.class, sequence, blocks);
+        for (int i = 0; i < count; i++) {
+            ids[i] = blockStarts.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE;
+        }
+        return ids;
+    }
+
+    private static void setResultValues(PreparedStatement ps, AnalysisResultEntity result) throws SQLException {
+        ps.setLong(1, result.getId());
+        ps.setString(2, result.getInputText());
+        ps.setString(3, result.getAnalysisType());
+        ps.setString(4, result.getMode());
+        ps.setInt(5, result.getTotalLetters());
+        ps.setInt(6, result.getTotalVowels());
+        ps.setInt(7, result.getTotalConsonants());
+        ps.setInt(8, result.getTotalDigits());
+        ps.setInt(9, result.getTotalSymbols());
+        ps.setInt(10, result.getWordCount());
+        ps.setDouble(11, result.getVowelPercentage());
+        ps.setDouble(12, result.getConsonantPercentage());
+        if (result.getMostFrequentCharacter() != null) {
+            ps.setString(13, String.valueOf(result.getMostFrequentCharacter()));
+        } else {
+            ps.setNull(13, Types.VARCHAR);
+        }
+        if (result.getMostFrequentCount() != null) {
+            ps.setInt(14, result.getMostFrequentCount());
+        } else {
+            ps.setNull(14, Types.INTEGER);
+        }
+        ps.setObject(15, result.getCreatedAt());
+        ps.setBytes(16, result.getCharacterHistogram());
+        ps.setObject(17, result.getClientId(), Types.OTHER);
+    }
+}
@@ -0,0 +1,141 @@
+package com.textrover.repository;
+
+import com.textrover.entity.AnalysisCharacterCountEntity;
+import com.textrover.entity.AnalysisResultEntity;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Bulk loader that streams analysis results and their character counts into the tables
+ * with PostgreSQL {@code COPY ... FROM STDIN}, which skips per-row statement parsing and
+ * planning altogether. Ids come from the pooled sequences through
+ * {@link AnalysisResultBatchRepository}, as for batched inserts.
+ */
+@Repository
+public class AnalysisResultCopyRepository {
+
+    private static final String COPY_RESULTS = """
+            COPY textrover.analysis_results (id, input_text, analysis_type, mode, total_letters, total_vowels,
+                total_consonants, total_digits, total_symbols, word_count, vowel_percentage, consonant_percentage,
+                most_frequent_character, most_frequent_count, created_at, character_histogram)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    private static final String COPY_CHARACTER_COUNTS =
+            "COPY textrover.analysis_character_counts (id, analysis_result_id, created_at, character, count) FROM STDIN WITH (FORMAT csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnalysisResultBatchRepository analysisResultBatchRepository;
+
+    public AnalysisResultCopyRepository(JdbcTemplate jdbcTemplate,
+                                        AnalysisResultBatchRepository analysisResultBatchRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.analysisResultBatchRepository = analysisResultBatchRepository;
+    }
+
+    /**
+     * Copy the given results and their character counts, assigning the ids back onto the
+     * entities. Must run inside the caller's transaction.
+     */
+    public void copyAll(List<AnalysisResultEntity> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        List<AnalysisCharacterCountEntity> counts = new ArrayList<>();
+        for (AnalysisResultEntity result : results) {
+            if (result.getCharacterCounts() != null) {
+                counts.addAll(result.getCharacterCounts());
+            }
+        }
+
+        long[] resultIds = analysisResultBatchRepository.allocateIds("textrover.analysis_results_seq", results.size());
+        long[] countIds = analysisResultBatchRepository.allocateIds("textrover.analysis_character_counts_seq", counts.size());
+        for (int i = 0; i < results.size(); i++) {
+            results.get(i).setId(resultIds[i]);
+        }
+        for (int i = 0; i < counts.size(); i++) {
+            counts.get(i).setId(countIds[i]);
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copy(copyManager, COPY_RESULTS, results, AnalysisResultCopyRepository::appendResult);
+            if (!counts.isEmpty()) {
+                copy(copyManager, COPY_CHARACTER_COUNTS, counts, AnalysisResultCopyRepository::appendCharacterCount);
+            }
+            return null;
+        });
+    }
+
+    private interface RowFormatter<T> {
+        void append(StringBuilder row, T value);
+    }
+
+    private static <T> void copy(CopyManager copyManager, String sql, List<T> rows, RowFormatter<T> formatter)
+            throws SQLException {
+        CopyIn copyIn = copyManager.copyIn(sql);
+        try {
+            StringBuilder row = new StringBuilder(256);
+            for (T value : rows) {
+                row.setLength(0);
+                formatter.append(row, value);
+                row.append('\n');
+                byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            }
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    // Unquoted empty fields are NULL in CSV COPY, so every text value is quoted
+    private static void appendResult(StringBuilder row, AnalysisResultEntity result) {
+        row.append(result.getId()).append(',');
+        appendQuoted(row, result.getInputText()).append(',');
+        appendQuoted(row, result.getAnalysisType()).append(',');
+        appendQuoted(row, result.getMode()).append(',');
+        row.append(result.getTotalLetters()).append(',')
+                .append(result.getTotalVowels()).append(',')
+                .append(result.getTotalConsonants()).append(',')
+                .append(result.getTotalDigits()).append(',')
+                .append(result.getTotalSymbols()).append(',')
+                .append(result.getWordCount()).append(',')
+                .append(result.getVowelPercentage()).append(',')
+                .append(result.getConsonantPercentage()).append(',');
+        if (result.getMostFrequentCharacter() != null) {
+            appendQuoted(row, String.valueOf(result.getMostFrequentCharacter()));
+        }
+        row.append(',');
+        if (result.getMostFrequentCount() != null) {
+            row.append(result.getMostFrequentCount());
+        }
+        row.append(',').append(result.getCreatedAt()).append(',');
+        if (result.getCharacterHistogram() != null) {
+            row.append("\\x").append(HexFormat.of().formatHex(result.getCharacterHistogram()));
+        }
+    }
+
+    private static void appendCharacterCount(StringBuilder row, AnalysisCharacterCountEntity count) {
+        row.append(count.getId()).append(',').append(count.getAnalysisResult().getId()).append(',')
+                .append(count.getAnalysisResult().getCreatedAt()).append(',');
+        appendQuoted(row, String.valueOf(count.getCharacter())).append(',').append(count.getCount());
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder row, String value) {
+        return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
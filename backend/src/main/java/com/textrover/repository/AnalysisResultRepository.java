@@ -1,29 +1,54 @@
 package com.textrover.repository;
 
 import com.textrover.entity.AnalysisResultEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+
 @Repository
 public interface AnalysisResultRepository extends JpaRepository<AnalysisResultEntity, Long> {
     
     /**
-     * Find all analysis results ordered by creation date descending (latest first)
+     * Planner estimate of the number of analysis results, summed over the statistics of the
+     * partitions (autovacuum never analyzes the partitioned parent itself)
+     */
+    @Query(value = "SELECT CAST(COALESCE(SUM(GREATEST(c.reltuples, 0)), 0) AS bigint) FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = CAST('textrover.analysis_results' AS regclass)", nativeQuery = true)
+    long estimateCount();
+    
+    /**
+     * Remove all analysis results, their character counts, synced client ids and rollups in
+     * one statement, without scanning or logging individual rows
      */
-    Page<AnalysisResultEntity> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    @Modifying
+    @Transactional
+    @Query(value = "TRUNCATE TABLE textrover.analysis_character_counts, textrover.analysis_results, "
+            + "textrover.synced_client_ids, textrover.analysis_rollups", nativeQuery = true)
+    void truncateAll();
     
     /**
-     * Delete all analysis results
+     * Delete up to {@code limit} of the oldest results created before the cutoff, together
+     * with their character counts and synced client ids. Rows locked by other transactions
+     * are skipped and picked up by a later batch.
      */
     @Modifying
     @Transactional
-    @Query("DELETE FROM AnalysisResultEntity")
-    void deleteAllResults();
+    @Query(value = "WITH expired AS ("
+            + "SELECT id, created_at, client_id FROM textrover.analysis_results WHERE created_at < :cutoff "
+            + "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED), "
+            + "deleted_counts AS (DELETE FROM textrover.analysis_character_counts c USING expired e "
+            + "WHERE c.analysis_result_id = e.id AND c.created_at = e.created_at), "
+            + "deleted_client_ids AS (DELETE FROM textrover.synced_client_ids s USING expired e "
+            + "WHERE s.client_id = e.client_id) "
+            + "DELETE FROM textrover.analysis_results r USING expired e "
+            + "WHERE r.id = e.id AND r.created_at = e.created_at", nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") OffsetDateTime cutoff, @Param("limit") int limit);
     
     /**
      * Count total number of analysis results
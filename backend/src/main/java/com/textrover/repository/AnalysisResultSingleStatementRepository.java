@@ -0,0 +1,109 @@
+package com.textrover.repository;
+
+import com.textrover.entity.AnalysisCharacterCountEntity;
+import com.textrover.entity.AnalysisResultEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Plain JDBC writer that stores one analysis result and all of its character counts in
+ * a single round trip: a data-modifying CTE inserts the parent row, and the children
+ * are inserted from {@code unnest}ed arrays against the id it returns.
+ */
+@Repository
+public class AnalysisResultSingleStatementRepository {
+
+    // Child ids come in pooled-lo blocks of 50 from one nextval each, like Hibernate and the batch writer
+    private static final String INSERT_RESULT_WITH_COUNTS = """
+            WITH parent AS (
+                INSERT INTO textrover.analysis_results (input_text, analysis_type, mode, total_letters, total_vowels,
+                    total_consonants, total_digits, total_symbols, word_count, vowel_percentage, consonant_percentage,
+                    most_frequent_character, most_frequent_count, created_at, character_histogram)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                RETURNING id, created_at
+            ),
+            counts AS (
+                SELECT c.character, c.count, c.ord - 1 AS position
+                FROM unnest(?::varchar[], ?::integer[]) WITH ORDINALITY AS c(character, count, ord)
+            ),
+            id_blocks AS (
+                SELECT b.block, nextval('textrover.analysis_character_counts_seq') AS first_id
+                FROM generate_series(0, (SELECT (count(*) + 49) / 50 - 1 FROM counts)) AS b(block)
+            ),
+            inserted_counts AS (
+                INSERT INTO textrover.analysis_character_counts (id, analysis_result_id, created_at, character, count)
+                SELECT id_blocks.first_id + counts.position % 50, parent.id, parent.created_at, counts.character, counts.count
+                FROM counts
+                JOIN id_blocks ON id_blocks.block = counts.position / 50
+                CROSS JOIN parent
+            )
+            SELECT id FROM parent
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnalysisResultSingleStatementRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert the result and its character counts, assigning the generated id back onto
+     * the entity.
+     */
+    public AnalysisResultEntity insert(AnalysisResultEntity result) {
+        List<AnalysisCharacterCountEntity> counts = result.getCharacterCounts() != null
+                ? result.getCharacterCounts()
+                : List.of();
+        String[] characters = new String[counts.size()];
+        Integer[] values = new Integer[counts.size()];
+        for (int i = 0; i < counts.size(); i++) {
+            characters[i] = String.valueOf(counts.get(i).getCharacter());
+            values[i] = counts.get(i).getCount();
+        }
+
+        Long id = jdbcTemplate.query(connection -> prepare(connection, result, characters, values), (ResultSet rs) -> {
+            rs.next();
+            return rs.getLong(1);
+        });
+        result.setId(id);
+        return result;
+    }
+
+    private static PreparedStatement prepare(Connection connection, AnalysisResultEntity result,
+                                             String[] characters, Integer[] values) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(INSERT_RESULT_WITH_COUNTS);
+        ps.setString(1, result.getInputText());
+        ps.setString(2, result.getAnalysisType());
+        ps.setString(3, result.getMode());
+        ps.setInt(4, result.getTotalLetters());
+        ps.setInt(5, result.getTotalVowels());
+        ps.setInt(6, result.getTotalConsonants());
+        ps.setInt(7, result.getTotalDigits());
+        ps.setInt(8, result.getTotalSymbols());
+        ps.setInt(9, result.getWordCount());
+        ps.setDouble(10, result.getVowelPercentage());
+        ps.setDouble(11, result.getConsonantPercentage());
+        if (result.getMostFrequentCharacter() != null) {
+            ps.setString(12, String.valueOf(result.getMostFrequentCharacter()));
+        } else {
+            ps.setNull(12, Types.VARCHAR);
+        }
+        if (result.getMostFrequentCount() != null) {
+            ps.setInt(13, result.getMostFrequentCount());
+        } else {
+            ps.setNull(13, Types.INTEGER);
+        }
+        ps.setObject(14, result.getCreatedAt());
+        ps.setBytes(15, result.getCharacterHistogram());
+        ps.setArray(16, connection.createArrayOf("varchar", characters));
+        ps.setArray(17, connection.createArrayOf("integer", values));
+        return ps;
+    }
+}
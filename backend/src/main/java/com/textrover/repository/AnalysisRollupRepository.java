@@ -0,0 +1,136 @@
+package com.textrover.repository;
+
+import com.textrover.dto.AnalysisAggregateBucketDTO;
+import com.textrover.entity.AnalysisResultEntity;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hourly rollups of the history per analysis type and mode. Writers add their results to
+ * the rollups in the same transaction as the results themselves, so the rollups always
+ * match the recorded history; aggregate reads then touch one row per hour, type and mode
+ * instead of every analysis.
+ * <p>
+ * Rollups are lifetime totals: retention and dropped or detached partitions leave them as
+ * they are, and only truncating the history clears them.
+ */
+@Repository
+public class AnalysisRollupRepository {
+
+    private static final String UPSERT_ROLLUP = """
+            INSERT INTO textrover.analysis_rollups (bucket_start, analysis_type, mode, analyses, total_text_length,
+                total_letters, total_vowels, total_consonants)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (bucket_start, analysis_type, mode) DO UPDATE SET
+                analyses = analysis_rollups.analyses + EXCLUDED.analyses,
+                total_text_length = analysis_rollups.total_text_length + EXCLUDED.total_text_length,
+                total_letters = analysis_rollups.total_letters + EXCLUDED.total_letters,
+                total_vowels = analysis_rollups.total_vowels + EXCLUDED.total_vowels,
+                total_consonants = analysis_rollups.total_consonants + EXCLUDED.total_consonants
+            """;
+
+    // Hourly rows are summed into the requested granularity, e.g. 'day'
+    private static final String SELECT_BUCKETS = """
+            SELECT date_trunc(:granularity, bucket_start AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS bucket,
+                analysis_type, mode, SUM(analyses) AS analyses, SUM(total_text_length) AS total_text_length,
+                SUM(total_letters) AS total_letters, SUM(total_vowels) AS total_vowels,
+                SUM(total_consonants) AS total_consonants
+            FROM textrover.analysis_rollups
+            WHERE bucket_start >= :createdFrom AND bucket_start < :createdTo
+            """;
+
+    private record RollupKey(OffsetDateTime bucketStart, String analysisType, String mode) {
+    }
+
+    // Rows are always upserted in this order, so concurrent writers cannot deadlock on them
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::bucketStart)
+            .thenComparing(RollupKey::analysisType)
+            .thenComparing(RollupKey::mode);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AnalysisRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add the given results to their hourly rollups, one upsert per affected rollup row.
+     * Must run inside the transaction that stores the results.
+     */
+    public void addAll(List<AnalysisResultEntity> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        Map<RollupKey, AnalysisAggregateBucketDTO> rollups = new TreeMap<>(KEY_ORDER);
+        for (AnalysisResultEntity result : results) {
+            RollupKey key = new RollupKey(hourOf(result.getCreatedAt()), result.getAnalysisType(), result.getMode());
+            AnalysisAggregateBucketDTO rollup = rollups.computeIfAbsent(key, k -> new AnalysisAggregateBucketDTO());
+            rollup.setAnalyses(rollup.getAnalyses() + 1);
+            rollup.setTotalTextLength(rollup.getTotalTextLength()
+                    + result.getInputText().codePointCount(0, result.getInputText().length()));
+            rollup.setTotalLetters(rollup.getTotalLetters() + result.getTotalLetters());
+            rollup.setTotalVowels(rollup.getTotalVowels() + result.getTotalVowels());
+            rollup.setTotalConsonants(rollup.getTotalConsonants() + result.getTotalConsonants());
+        }
+
+        List<Map.Entry<RollupKey, AnalysisAggregateBucketDTO>> rows = new ArrayList<>(rollups.entrySet());
+        jdbcTemplate.getJdbcTemplate().batchUpdate(UPSERT_ROLLUP, rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.getKey().bucketStart());
+            ps.setString(2, row.getKey().analysisType());
+            ps.setString(3, row.getKey().mode());
+            ps.setLong(4, row.getValue().getAnalyses());
+            ps.setLong(5, row.getValue().getTotalTextLength());
+            ps.setLong(6, row.getValue().getTotalLetters());
+            ps.setLong(7, row.getValue().getTotalVowels());
+            ps.setLong(8, row.getValue().getTotalConsonants());
+        });
+    }
+
+    /**
+     * Rollups within [createdFrom, createdTo), summed per {@code granularity} ("hour" or
+     * "day"), analysis type and mode, oldest first
+     */
+    public List<AnalysisAggregateBucketDTO> findBuckets(String granularity, OffsetDateTime createdFrom,
+                                                        OffsetDateTime createdTo, String analysisType, String mode) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("granularity", granularity)
+                .addValue("createdFrom", createdFrom)
+                .addValue("createdTo", createdTo);
+        StringBuilder sql = new StringBuilder(SELECT_BUCKETS);
+        if (analysisType != null) {
+            sql.append("AND analysis_type = :analysisType\n");
+            params.addValue("analysisType", analysisType);
+        }
+        if (mode != null) {
+            sql.append("AND mode = :mode\n");
+            params.addValue("mode", mode);
+        }
+        sql.append("GROUP BY 1, analysis_type, mode\nORDER BY 1, analysis_type, mode");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> AnalysisAggregateBucketDTO.builder()
+                .bucketStart(rs.getObject("bucket", OffsetDateTime.class))
+                .analysisType(rs.getString("analysis_type"))
+                .mode(rs.getString("mode"))
+                .analyses(rs.getLong("analyses"))
+                .totalTextLength(rs.getLong("total_text_length"))
+                .totalLetters(rs.getLong("total_letters"))
+                .totalVowels(rs.getLong("total_vowels"))
+                .totalConsonants(rs.getLong("total_consonants"))
+                .build());
+    }
+
+    static OffsetDateTime hourOf(OffsetDateTime createdAt) {
+        return createdAt.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+    }
+}
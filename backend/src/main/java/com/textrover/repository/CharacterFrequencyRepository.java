@@ -0,0 +1,60 @@
+package com.textrover.repository;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Durable copy of the global character counts, one row per character keyed by its code
+ * point. Instances only ever add to the stored counts, so several of them can flush into
+ * the same table.
+ */
+@Repository
+public class CharacterFrequencyRepository {
+
+    private static final String UPSERT_FREQUENCY = """
+            INSERT INTO textrover.character_frequencies (code_point, occurrences)
+            VALUES (?, ?)
+            ON CONFLICT (code_point) DO UPDATE SET
+                occurrences = character_frequencies.occurrences + EXCLUDED.occurrences
+            """;
+
+    private static final String SELECT_FREQUENCIES =
+            "SELECT code_point, occurrences FROM textrover.character_frequencies WHERE code_point <= 65535";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public CharacterFrequencyRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add the given occurrences to the stored counts in one transaction. Rows are upserted
+     * in character order, so concurrent instances cannot deadlock on them.
+     */
+    @Transactional
+    public void addAll(Map<Character, Long> occurrences) {
+        if (occurrences.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Character, Long>> rows = new ArrayList<>(new TreeMap<>(occurrences).entrySet());
+        jdbcTemplate.getJdbcTemplate().batchUpdate(UPSERT_FREQUENCY, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getKey());
+            ps.setLong(2, row.getValue());
+        });
+    }
+
+    public Map<Character, Long> findAll() {
+        Map<Character, Long> occurrences = new HashMap<>();
+        jdbcTemplate.getJdbcTemplate().query(SELECT_FREQUENCIES, rs -> {
+            occurrences.put((char) rs.getInt("code_point"), rs.getLong("occurrences"));
+        });
+        return occurrences;
+    }
+}
@@ -0,0 +1,97 @@
+package com.textrover.repository;
+
+import com.textrover.entity.AnalysisResultEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Client ids of synced offline analyses, one row per id in an unpartitioned table. A
+ * unique index on the partitioned history would have to include created_at, so it cannot
+ * keep a client id from being recorded twice; the primary key of this table can. A sync
+ * claims its client ids here in the transaction that inserts the results, and only the
+ * results whose id it won are inserted.
+ */
+@Repository
+public class SyncedClientIdRepository {
+
+    private static final String CLAIM_CLIENT_IDS = """
+            INSERT INTO textrover.synced_client_ids (client_id, result_id, created_at)
+            SELECT * FROM unnest(?::uuid[], ?::bigint[], ?::timestamptz[])
+            ON CONFLICT (client_id) DO NOTHING
+            RETURNING client_id
+            """;
+
+    private static final String SELECT_RESULT_IDS =
+            "SELECT client_id, result_id FROM textrover.synced_client_ids WHERE client_id = ANY (?::uuid[])";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyncedClientIdRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Record the client ids of the given results, which must already have their ids,
+     * returning the client ids that were not recorded before. A client id claimed by a
+     * concurrent transaction blocks until that one ends and is then not returned unless it
+     * rolled back. Must run inside the caller's transaction.
+     */
+    public Set<UUID> claimAll(List<AnalysisResultEntity> results) {
+        // In client id order, so overlapping batches wait on each other instead of deadlocking
+        List<AnalysisResultEntity> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparing(AnalysisResultEntity::getClientId));
+        UUID[] clientIds = new UUID[sorted.size()];
+        Long[] resultIds = new Long[sorted.size()];
+        String[] createdAts = new String[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            clientIds[i] = sorted.get(i).getClientId();
+            resultIds[i] = sorted.get(i).getId();
+            createdAts[i] = sorted.get(i).getCreatedAt().toString();
+        }
+
+        Set<UUID> claimed = new HashSet<>();
+        jdbcTemplate.query(connection -> prepareClaim(connection, clientIds, resultIds, createdAts),
+                rs -> {
+                    claimed.add(rs.getObject("client_id", UUID.class));
+                });
+        return claimed;
+    }
+
+    /**
+     * History ids recorded under any of the given client ids, keyed by client id
+     */
+    public Map<UUID, Long> findResultIds(Collection<UUID> clientIds) {
+        Map<UUID, Long> ids = new HashMap<>();
+        UUID[] values = clientIds.toArray(new UUID[0]);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_RESULT_IDS);
+            ps.setArray(1, connection.createArrayOf("uuid", values));
+            return ps;
+        }, rs -> {
+            ids.put(rs.getObject("client_id", UUID.class), rs.getLong("result_id"));
+        });
+        return ids;
+    }
+
+    private static PreparedStatement prepareClaim(Connection connection, UUID[] clientIds, Long[] resultIds,
+                                                  String[] createdAts) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(CLAIM_CLIENT_IDS);
+        ps.setArray(1, connection.createArrayOf("uuid", clientIds));
+        ps.setArray(2, connection.createArrayOf("bigint", resultIds));
+        ps.setArray(3, connection.createArrayOf("timestamptz", createdAts));
+        return ps;
+    }
+}
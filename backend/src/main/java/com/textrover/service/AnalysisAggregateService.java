@@ -0,0 +1,90 @@
+package com.textrover.service;
+
+import com.textrover.dto.AnalysisAggregateBucketDTO;
+import com.textrover.dto.AnalysisAggregateDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import com.textrover.exception.ValidationException;
+import com.textrover.repository.AnalysisRollupRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aggregate statistics over the history, read from the hourly rollups only. A request
+ * costs one row per hour, analysis type and mode in its range, however many analyses
+ * were recorded, and the range is capped so that stays small.
+ */
+@Service
+public class AnalysisAggregateService {
+
+    private static final Logger log = LogManager.getLogger(AnalysisAggregateService.class);
+
+    // Time buckets per response; about 41 days hourly, or nearly three years daily
+    static final int MAX_BUCKETS = 1000;
+
+    private final AnalysisRollupRepository analysisRollupRepository;
+
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public static Granularity of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Granularity must be hour or day");
+            }
+        }
+
+        public String value() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public AnalysisAggregateService(AnalysisRollupRepository analysisRollupRepository) {
+        this.analysisRollupRepository = analysisRollupRepository;
+    }
+
+    /**
+     * Buckets of the given granularity matching the filter. The range defaults to the last
+     * 24 hours and its start is rounded down to a bucket boundary in UTC.
+     */
+    public AnalysisAggregateDTO getAggregates(AnalysisHistoryQueryDTO filter, Granularity granularity) {
+        AnalysisHistoryService.validateFilter(filter);
+
+        OffsetDateTime createdTo = filter.getCreatedTo() != null ? filter.getCreatedTo() : OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime createdFrom = filter.getCreatedFrom() != null ? filter.getCreatedFrom() : createdTo.minusHours(24);
+        createdFrom = createdFrom.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(granularity.unit);
+        if (!createdFrom.isBefore(createdTo)) {
+            throw new ValidationException("createdFrom must be before createdTo");
+        }
+        if (Duration.between(createdFrom, createdTo).compareTo(granularity.unit.getDuration().multipliedBy(MAX_BUCKETS)) > 0) {
+            throw new ValidationException("Range cannot span more than " + MAX_BUCKETS + " " + granularity.value() + "s");
+        }
+
+        List<AnalysisAggregateBucketDTO> buckets = analysisRollupRepository.findBuckets(
+                granularity.value(), createdFrom, createdTo, filter.getAnalysisType(), filter.getMode());
+
+        log.debug("Read {} aggregate buckets - Granularity: {}, From: {}, To: {}",
+                buckets.size(), granularity, createdFrom, createdTo);
+        return AnalysisAggregateDTO.builder()
+                .granularity(granularity.value())
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .buckets(buckets)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisRequestDTO;
+import com.textrover.dto.AnalysisResponseDTO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Analyzes a request and records it in the history, letting concurrent requests for the
+ * same (type, text) share a single in-flight analysis and history write. Whether the
+ * requests that joined also get a history row of their own is controlled by
+ * {@code textrover.analysis.coalescing.duplicate-history}; either way, every request is
+ * counted in the character frequencies and traffic statistics.
+ */
+@Service
+public class AnalysisCoalescingService {
+
+    private static final Logger log = LogManager.getLogger(AnalysisCoalescingService.class);
+
+    private final TextAnalysisService textAnalysisService;
+    private final AnalysisHistoryWriter analysisHistoryWriter;
+    private final AnalysisProperties.Coalescing properties;
+
+    private final ConcurrentMap<AnalysisKey, CompletableFuture<AnalysisResponseDTO>> inFlight = new ConcurrentHashMap<>();
+
+    public AnalysisCoalescingService(TextAnalysisService textAnalysisService,
+                                     AnalysisHistoryWriter analysisHistoryWriter,
+                                     AnalysisProperties analysisProperties) {
+        this.textAnalysisService = textAnalysisService;
+        this.analysisHistoryWriter = analysisHistoryWriter;
+        this.properties = analysisProperties.getCoalescing();
+    }
+
+    public AnalysisResponseDTO analyzeAndRecord(AnalysisRequestDTO request, String mode) {
+        textAnalysisService.validate(request);
+        AnalysisKey key = AnalysisKey.of(request.getType(), request.getText());
+
+        if (!properties.isEnabled()) {
+            return record(textAnalysisService.analyze(key, request.getText()), mode);
+        }
+
+        CompletableFuture<AnalysisResponseDTO> future = new CompletableFuture<>();
+        CompletableFuture<AnalysisResponseDTO> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return joinInFlight(existing, mode);
+        }
+
+        try {
+            AnalysisResponseDTO response = record(textAnalysisService.analyze(key, request.getText()), mode);
+            future.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private AnalysisResponseDTO joinInFlight(CompletableFuture<AnalysisResponseDTO> existing, String mode) {
+        AnalysisResponseDTO response;
+        try {
+            response = existing.join();
+        } catch (CompletionException e) {
+            // Surface the leader's failure as is, so the exception handler maps it the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        log.debug("Joined in-flight analysis - Type: {}", response.getType());
+        // Served like any other request, so it counts towards the global statistics
+        textAnalysisService.recordTraffic(response);
+        if (properties.getDuplicateHistory() == AnalysisProperties.DuplicateHistory.PER_REQUEST) {
+            analysisHistoryWriter.write(response, mode);
+        }
+        return response;
+    }
+
+    private AnalysisResponseDTO record(AnalysisResponseDTO response, String mode) {
+        analysisHistoryWriter.write(response, mode);
+        return response;
+    }
+}
@@ -0,0 +1,160 @@
+package com.textrover.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.textrover.dto.AnalysisHistoryDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import com.textrover.exception.ValidationException;
+import com.textrover.mapper.AnalysisMapper;
+import com.textrover.repository.AnalysisHistoryExportRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the history to an output stream as NDJSON (one {@code AnalysisHistoryItem} per
+ * line) or CSV, optionally gzip-compressed. Entries go to the stream as they are read
+ * from the database cursor, so an export of any size needs constant memory.
+ */
+@Service
+public class AnalysisHistoryExporter {
+
+    private static final Logger log = LogManager.getLogger(AnalysisHistoryExporter.class);
+
+    private static final String CSV_HEADER = "id,created_at,analysis_type,mode,total_letters,total_vowels,"
+            + "total_consonants,total_digits,total_symbols,word_count,vowel_percentage,consonant_percentage,"
+            + "most_frequent_character,most_frequent_count,character_counts,input_text";
+
+    private final AnalysisHistoryExportRepository analysisHistoryExportRepository;
+    private final AnalysisMapper analysisMapper;
+    private final ObjectWriter jsonWriter;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Export format must be ndjson or csv");
+            }
+        }
+    }
+
+    public AnalysisHistoryExporter(AnalysisHistoryExportRepository analysisHistoryExportRepository,
+                                   AnalysisMapper analysisMapper,
+                                   ObjectMapper objectMapper) {
+        this.analysisHistoryExportRepository = analysisHistoryExportRepository;
+        this.analysisMapper = analysisMapper;
+        this.jsonWriter = objectMapper.writer();
+    }
+
+    /**
+     * Reject a filter that {@link #export} would fail on, while an error response can
+     * still be sent.
+     */
+    public void validate(AnalysisHistoryQueryDTO filter) {
+        AnalysisHistoryService.validateFilter(filter);
+    }
+
+    /**
+     * Write every entry matching the filter to {@code out}, oldest first. The stream is
+     * flushed but left open.
+     */
+    @Transactional(readOnly = true)
+    public void export(AnalysisHistoryQueryDTO filter, Format format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : out, StandardCharsets.UTF_8));
+        long[] exported = {0};
+
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try {
+            analysisHistoryExportRepository.streamAll(filter, entry -> {
+                try {
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, entry);
+                    } else {
+                        writer.write(jsonWriter.writeValueAsString(analysisMapper.toGeneratedHistoryItem(entry)));
+                    }
+                    writer.write('\n');
+                    exported[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Typically the client went away mid-download
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        log.info("Exported {} analysis history entries as {}{}", exported[0], format, gzip ? " (gzip)" : "");
+    }
+
+    private void writeCsvRow(Writer writer, AnalysisHistoryDTO entry) throws IOException {
+        writer.write(String.valueOf(entry.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(entry.getCreatedAt()));
+        writer.write(',');
+        writer.write(csv(entry.getAnalysisType()));
+        writer.write(',');
+        writer.write(csv(entry.getMode()));
+        writer.write(',');
+        writer.write(entry.getTotalLetters() + "," + entry.getTotalVowels() + "," + entry.getTotalConsonants() + ","
+                + entry.getTotalDigits() + "," + entry.getTotalSymbols() + "," + entry.getWordCount() + ","
+                + entry.getVowelPercentage() + "," + entry.getConsonantPercentage() + ",");
+        writer.write(csv(entry.getMostFrequentCharacter() != null ? entry.getMostFrequentCharacter().toString() : null));
+        writer.write(',');
+        writer.write(entry.getMostFrequentCount() != null ? entry.getMostFrequentCount().toString() : "");
+        writer.write(',');
+        writer.write(csv(jsonWriter.writeValueAsString(entry.getCharacterCounts())));
+        writer.write(',');
+        writer.write(csv(entry.getInputText()));
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks, doubling inner quotes
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,158 @@
+package com.textrover.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisHistoryDTO;
+import com.textrover.dto.AnalysisHistoryImportDTO;
+import com.textrover.dto.generated.AnalysisHistoryItem;
+import com.textrover.exception.ValidationException;
+import com.textrover.mapper.AnalysisMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads history entries from NDJSON, as written by {@link AnalysisHistoryExporter}. The
+ * input is parsed as a stream and loaded in chunks through
+ * {@link AnalysisHistoryService#importEntries(List)}, one COPY transaction per chunk, so
+ * memory is bounded by the chunk size. Progress and throughput are logged per chunk.
+ */
+@Service
+public class AnalysisHistoryImporter {
+
+    private static final Logger log = LogManager.getLogger(AnalysisHistoryImporter.class);
+
+    // Same cap as the texts accepted by /analyze and /history/sync
+    private static final int MAX_TEXT_LENGTH = 10_000;
+
+    private final AnalysisHistoryService analysisHistoryService;
+    private final AnalysisMapper analysisMapper;
+    private final ObjectReader itemReader;
+    private final int chunkSize;
+
+    public AnalysisHistoryImporter(AnalysisHistoryService analysisHistoryService,
+                                   AnalysisMapper analysisMapper,
+                                   ObjectMapper objectMapper,
+                                   AnalysisProperties analysisProperties) {
+        this.analysisHistoryService = analysisHistoryService;
+        this.analysisMapper = analysisMapper;
+        this.itemReader = objectMapper.readerFor(AnalysisHistoryItem.class);
+        this.chunkSize = analysisProperties.getHistory().getImportChunkSize();
+    }
+
+    /**
+     * Import every record of the NDJSON stream. A malformed or incomplete record, a text
+     * longer than the analysis endpoints accept or a creation time in the future stops the
+     * import with a {@link ValidationException}; the chunks loaded before it stay.
+     */
+    public AnalysisHistoryImportDTO importHistory(InputStream ndjson) throws IOException {
+        long startNanos = System.nanoTime();
+        List<AnalysisHistoryDTO> chunk = new ArrayList<>(chunkSize);
+        long imported = 0;
+        int chunks = 0;
+        long record = 0;
+
+        try (MappingIterator<AnalysisHistoryItem> items = itemReader.readValues(ndjson)) {
+            while (hasNext(items, record + 1, imported)) {
+                record++;
+                chunk.add(toEntry(next(items, record, imported), record, imported));
+                if (chunk.size() == chunkSize) {
+                    imported += load(chunk, imported, startNanos);
+                    chunk = new ArrayList<>(chunkSize);
+                    chunks++;
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += load(chunk, imported, startNanos);
+            chunks++;
+        }
+
+        long durationMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        AnalysisHistoryImportDTO result = AnalysisHistoryImportDTO.builder()
+                .imported(imported)
+                .chunks(chunks)
+                .durationMillis(durationMillis)
+                .rowsPerSecond(rowsPerSecond(imported, System.nanoTime() - startNanos))
+                .build();
+        log.info("Imported {} history entries in {} chunks - Duration: {} ms, Rows/s: {}",
+                imported, chunks, durationMillis, String.format("%.1f", result.getRowsPerSecond()));
+        return result;
+    }
+
+    private int load(List<AnalysisHistoryDTO> chunk, long importedBefore, long startNanos) {
+        int size = chunk.size();
+        analysisHistoryService.importEntries(chunk);
+        long imported = importedBefore + size;
+        log.info("Import progress - Entries: {}, Rows/s: {}",
+                imported, String.format("%.1f", rowsPerSecond(imported, System.nanoTime() - startNanos)));
+        return size;
+    }
+
+    private static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos > 0 ? rows * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    private static boolean hasNext(MappingIterator<AnalysisHistoryItem> items, long record, long imported) {
+        try {
+            return items.hasNextValue();
+        } catch (IOException e) {
+            throw invalidRecord(record, imported, "not valid JSON", e);
+        }
+    }
+
+    private static AnalysisHistoryItem next(MappingIterator<AnalysisHistoryItem> items, long record, long imported) {
+        try {
+            return items.nextValue();
+        } catch (JsonProcessingException e) {
+            throw invalidRecord(record, imported, "not a history item: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private AnalysisHistoryDTO toEntry(AnalysisHistoryItem item, long record, long imported) {
+        AnalysisHistoryDTO entry;
+        try {
+            entry = analysisMapper.toInternal(item);
+        } catch (IllegalArgumentException e) {
+            throw invalidRecord(record, imported, e.getMessage(), e);
+        }
+        if (entry.getInputText() == null || entry.getAnalysisType() == null || entry.getMode() == null) {
+            throw invalidRecord(record, imported, "inputText, analysisType and mode are required", null);
+        }
+        if (entry.getTotalLetters() == null || entry.getTotalVowels() == null || entry.getTotalConsonants() == null
+                || entry.getTotalDigits() == null || entry.getTotalSymbols() == null || entry.getWordCount() == null
+                || entry.getVowelPercentage() == null || entry.getConsonantPercentage() == null) {
+            throw invalidRecord(record, imported, "statistics are incomplete", null);
+        }
+        if (entry.getCharacterCounts() == null) {
+            throw invalidRecord(record, imported, "characterCounts is required", null);
+        }
+        if (entry.getInputText().length() > MAX_TEXT_LENGTH) {
+            throw invalidRecord(record, imported, "inputText is longer than " + MAX_TEXT_LENGTH + " characters", null);
+        }
+        // A future entry would land in the default partition, where it blocks creating the partition for its month
+        if (entry.getCreatedAt() != null && entry.getCreatedAt().isAfter(OffsetDateTime.now())) {
+            throw invalidRecord(record, imported, "createdAt is in the future", null);
+        }
+        return entry;
+    }
+
+    private static ValidationException invalidRecord(long record, long imported, String reason, Exception cause) {
+        log.warn("Import stopped at record {} after {} imported entries: {}", record, imported, reason);
+        String message = "Record " + record + " is invalid (" + reason + "); "
+                + imported + " entries were imported before it";
+        return cause != null ? new ValidationException(message, cause) : new ValidationException(message);
+    }
+}
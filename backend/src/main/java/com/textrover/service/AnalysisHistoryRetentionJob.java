@@ -0,0 +1,142 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.repository.AnalysisResultRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes history entries older than {@code textrover.analysis.history.retention}. Expired
+ * rows are removed oldest first in small batches, each in its own short transaction, with
+ * a pause in between, so the job never holds locks long enough to stall concurrent
+ * inserts. Rows locked by other transactions are skipped until a later batch.
+ * <p>
+ * Progress of the current run and the total number of deleted rows are published as
+ * metrics. The job is off unless a retention period is configured.
+ */
+@Component
+public class AnalysisHistoryRetentionJob {
+
+    private static final Logger log = LogManager.getLogger(AnalysisHistoryRetentionJob.class);
+
+    private final AnalysisResultRepository analysisResultRepository;
+    private final AnalysisProperties.History properties;
+    private final Counter deletedCounter;
+    private final Counter batchCounter;
+    private final Timer runTimer;
+    private final AtomicLong runDeleted = new AtomicLong();
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public AnalysisHistoryRetentionJob(AnalysisResultRepository analysisResultRepository,
+                                       AnalysisProperties analysisProperties,
+                                       MeterRegistry meterRegistry) {
+        this.analysisResultRepository = analysisResultRepository;
+        this.properties = analysisProperties.getHistory();
+
+        Gauge.builder("textrover.history.retention.run.deleted", runDeleted, AtomicLong::get)
+                .description("History entries deleted so far by the current or last retention run")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder("textrover.history.retention.deleted")
+                .description("History entries deleted by the retention job")
+                .register(meterRegistry);
+        this.batchCounter = Counter.builder("textrover.history.retention.batches")
+                .description("Delete batches executed by the retention job")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("textrover.history.retention.run")
+                .description("Duration of retention runs")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.getRetention().isZero() || properties.getRetention().isNegative()) {
+            return;
+        }
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getRetentionInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Scheduled history retention - Retention: {}, Interval: {}, Batch size: {}",
+                properties.getRetention(), properties.getRetentionInterval(), properties.getRetentionBatchSize());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Delete every entry older than the retention period, batch by batch, and return how
+     * many were deleted. Stops early when the job is shut down or the thread interrupted.
+     */
+    public long purgeExpired() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(properties.getRetention());
+        int batchSize = properties.getRetentionBatchSize();
+        long pauseMillis = properties.getRetentionBatchPause().toMillis();
+        long startNanos = System.nanoTime();
+        runDeleted.set(0);
+
+        long deleted = 0;
+        int batches = 0;
+        while (true) {
+            int batch = analysisResultRepository.deleteCreatedBefore(cutoff, batchSize);
+            batches++;
+            deleted += batch;
+            batchCounter.increment();
+            deletedCounter.increment(batch);
+            runDeleted.set(deleted);
+            log.debug("Retention progress - Batch: {}, Deleted: {}", batches, deleted);
+            if (batch < batchSize || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            if (pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        long durationNanos = System.nanoTime() - startNanos;
+        runTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (deleted > 0) {
+            log.info("Deleted {} history entries created before {} in {} batches - Duration: {} ms",
+                    deleted, cutoff, batches, durationNanos / 1_000_000);
+        }
+        return deleted;
+    }
+
+    // An exception would cancel all further runs of a fixed-delay task
+    private void runSafely() {
+        try {
+            purgeExpired();
+        } catch (RuntimeException e) {
+            log.error("History retention run failed after {} deleted entries: {}", runDeleted.get(), e.getMessage(), e);
+        }
+    }
+}
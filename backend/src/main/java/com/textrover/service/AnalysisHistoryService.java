@@ -1,34 +1,81 @@
 package com.textrover.service;
 
+import com.textrover.config.AnalysisProperties;
 import com.textrover.dto.AnalysisHistoryDTO;
 import com.textrover.dto.AnalysisHistoryPageDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisStatisticsDTO;
+import com.textrover.dto.AnalysisSyncItemDTO;
 import com.textrover.entity.AnalysisResultEntity;
+import com.textrover.exception.NotFoundException;
+import com.textrover.exception.ValidationException;
 import com.textrover.entity.AnalysisCharacterCountEntity;
 import com.textrover.mapper.AnalysisMapper;
+import com.textrover.mapper.CharacterHistogramCodec;
+import com.textrover.repository.AnalysisHistoryQueryRepository;
+import com.textrover.repository.AnalysisResultBatchRepository;
+import com.textrover.repository.AnalysisResultCopyRepository;
 import com.textrover.repository.AnalysisResultRepository;
+import com.textrover.repository.AnalysisResultSingleStatementRepository;
+import com.textrover.repository.AnalysisRollupRepository;
+import com.textrover.repository.SyncedClientIdRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class AnalysisHistoryService {
     
     private static final Logger log = LogManager.getLogger(AnalysisHistoryService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    // Shorter queries cannot use the trigram index; longer ones are not meant as searches
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final int MAX_SEARCH_LENGTH = 200;
+    private static final List<String> HISTORY_MODES = List.of("online", "offline");
     
     private final AnalysisResultRepository analysisResultRepository;
+    private final AnalysisResultBatchRepository analysisResultBatchRepository;
+    private final AnalysisResultSingleStatementRepository analysisResultSingleStatementRepository;
+    private final AnalysisResultCopyRepository analysisResultCopyRepository;
+    private final AnalysisHistoryQueryRepository analysisHistoryQueryRepository;
+    private final AnalysisRollupRepository analysisRollupRepository;
+    private final SyncedClientIdRepository syncedClientIdRepository;
     private final AnalysisMapper analysisMapper;
+    private final AnalysisProperties.History historyProperties;
+    private final AnalysisProperties.HistogramStorage histogramStorage;
+    private final AnalysisProperties.PersistencePath persistencePath;
     
-    public AnalysisHistoryService(AnalysisResultRepository analysisResultRepository, AnalysisMapper analysisMapper) {
+    public AnalysisHistoryService(AnalysisResultRepository analysisResultRepository,
+                                  AnalysisResultBatchRepository analysisResultBatchRepository,
+                                  AnalysisResultSingleStatementRepository analysisResultSingleStatementRepository,
+                                  AnalysisResultCopyRepository analysisResultCopyRepository,
+                                  AnalysisHistoryQueryRepository analysisHistoryQueryRepository,
+                                  AnalysisRollupRepository analysisRollupRepository,
+                                  SyncedClientIdRepository syncedClientIdRepository,
+                                  AnalysisMapper analysisMapper,
+                                  AnalysisProperties analysisProperties) {
         this.analysisResultRepository = analysisResultRepository;
+        this.analysisResultBatchRepository = analysisResultBatchRepository;
+        this.analysisResultSingleStatementRepository = analysisResultSingleStatementRepository;
+        this.analysisResultCopyRepository = analysisResultCopyRepository;
+        this.analysisHistoryQueryRepository = analysisHistoryQueryRepository;
+        this.analysisRollupRepository = analysisRollupRepository;
+        this.syncedClientIdRepository = syncedClientIdRepository;
         this.analysisMapper = analysisMapper;
+        this.historyProperties = analysisProperties.getHistory();
+        this.histogramStorage = analysisProperties.getHistory().getHistogramStorage();
+        this.persistencePath = analysisProperties.getHistory().getPersistencePath();
     }
     
     /**
@@ -69,59 +116,332 @@ public class AnalysisHistoryService {
         entity.setMostFrequentCharacter(mostFrequentCharacter);
         entity.setMostFrequentCount(mostFrequentCount);
         
-        // Save the main entity first to get the ID
-        AnalysisResultEntity saved = analysisResultRepository.save(entity);
+        setHistogram(entity, characterCounts);
+
+        AnalysisResultEntity saved = insert(entity);
         
-        // Create character count entities
-        List<AnalysisCharacterCountEntity> characterCountEntities = new ArrayList<>();
-        for (Map.Entry<Character, Integer> entry : characterCounts.entrySet()) {
-            AnalysisCharacterCountEntity countEntity = new AnalysisCharacterCountEntity(
-                    saved,
-                    entry.getKey(),
-                    entry.getValue()
+        log.info("Saved analysis result with ID: {} and {} character counts", 
+                saved.getId(), characterCounts.size());
+        return saved;
+    }
+    
+    /**
+     * Save a single analysis response to database
+     */
+    @Transactional
+    public AnalysisResultEntity saveAnalysisResult(AnalysisResponseDTO analysis, String mode) {
+        AnalysisResultEntity saved = insert(toEntity(analysis, mode));
+
+        log.info("Saved analysis result with ID: {} and {} character counts",
+                saved.getId(), analysis.getResult().size());
+        return saved;
+    }
+
+    /**
+     * Save many analysis results in one transaction using batched inserts
+     */
+    @Transactional
+    public List<AnalysisResultEntity> saveAnalysisResults(List<AnalysisResponseDTO> analyses, String mode) {
+        List<AnalysisResultEntity> entities = new ArrayList<>(analyses.size());
+        for (AnalysisResponseDTO analysis : analyses) {
+            entities.add(toEntity(analysis, mode));
+        }
+
+        analysisResultBatchRepository.insertAll(entities);
+        analysisRollupRepository.addAll(entities);
+
+        log.info("Saved {} analysis results in one batch", entities.size());
+        return entities;
+    }
+
+    /**
+     * Save analyses a client computed offline in one transaction using batched inserts,
+     * keeping their client ids and creation times. Items whose client id is already
+     * recorded, possibly by a concurrent sync of the same batch, are skipped; the saved
+     * entities are returned.
+     */
+    @Transactional
+    public List<AnalysisResultEntity> saveSyncedResults(List<AnalysisSyncItemDTO> items) {
+        List<AnalysisResultEntity> entities = new ArrayList<>(items.size());
+        for (AnalysisSyncItemDTO item : items) {
+            AnalysisResultEntity entity = toEntity(item.getAnalysis(), "offline");
+            entity.setClientId(item.getClientId());
+            entity.setCreatedAt(item.getCreatedAt());
+            entities.add(entity);
+        }
+
+        analysisResultBatchRepository.assignIds(entities);
+        Set<UUID> claimed = syncedClientIdRepository.claimAll(entities);
+        List<AnalysisResultEntity> inserts = new ArrayList<>(claimed.size());
+        for (AnalysisResultEntity entity : entities) {
+            if (claimed.contains(entity.getClientId())) {
+                inserts.add(entity);
+            }
+        }
+
+        analysisResultBatchRepository.insertAll(inserts);
+        analysisRollupRepository.addAll(inserts);
+
+        log.info("Saved {} synced offline analysis results in one batch - Already recorded: {}",
+                inserts.size(), entities.size() - inserts.size());
+        return inserts;
+    }
+
+    /**
+     * History ids of the results already recorded under any of the given client ids
+     */
+    public Map<UUID, Long> findIdsByClientIds(Collection<UUID> clientIds) {
+        if (clientIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return syncedClientIdRepository.findResultIds(clientIds);
+    }
+
+    /**
+     * Load previously recorded history entries as they are, keeping their type, mode and
+     * creation time, in one transaction using COPY
+     */
+    @Transactional
+    public List<AnalysisResultEntity> importEntries(List<AnalysisHistoryDTO> entries) {
+        List<AnalysisResultEntity> entities = new ArrayList<>(entries.size());
+        for (AnalysisHistoryDTO entry : entries) {
+            AnalysisResultEntity entity = new AnalysisResultEntity(
+                    entry.getInputText(),
+                    entry.getAnalysisType(),
+                    entry.getMode(),
+                    entry.getTotalLetters(),
+                    entry.getTotalVowels(),
+                    entry.getTotalConsonants(),
+                    entry.getTotalDigits(),
+                    entry.getTotalSymbols(),
+                    entry.getWordCount(),
+                    entry.getVowelPercentage(),
+                    entry.getConsonantPercentage()
             );
-            characterCountEntities.add(countEntity);
+            entity.setMostFrequentCharacter(entry.getMostFrequentCharacter());
+            entity.setMostFrequentCount(entry.getMostFrequentCount());
+            if (entry.getCreatedAt() != null) {
+                entity.setCreatedAt(entry.getCreatedAt());
+            }
+            setHistogram(entity, entry.getCharacterCounts());
+            entities.add(entity);
         }
-        
-        saved.setCharacterCounts(characterCountEntities);
-        
-        log.info("Saved analysis result with ID: {} and {} character counts", 
-                saved.getId(), characterCountEntities.size());
+
+        analysisResultCopyRepository.copyAll(entities);
+        analysisRollupRepository.addAll(entities);
+
+        log.debug("Imported {} history entries with COPY", entities.size());
+        return entities;
+    }
+
+    private AnalysisResultEntity insert(AnalysisResultEntity entity) {
+        AnalysisResultEntity saved = persistencePath == AnalysisProperties.PersistencePath.SINGLE_STATEMENT
+                ? analysisResultSingleStatementRepository.insert(entity)
+                : analysisResultRepository.save(entity);
+        analysisRollupRepository.addAll(List.of(saved));
         return saved;
     }
+
+    private AnalysisResultEntity toEntity(AnalysisResponseDTO analysis, String mode) {
+        AnalysisStatisticsDTO stats = analysis.getStatistics();
+        AnalysisResultEntity entity = new AnalysisResultEntity(
+                analysis.getText(),
+                analysis.getType().name(),
+                mode,
+                stats.getTotalLetters(),
+                stats.getTotalVowels(),
+                stats.getTotalConsonants(),
+                stats.getTotalDigits(),
+                stats.getTotalSymbols(),
+                stats.getWordCount(),
+                stats.getVowelPercentage(),
+                stats.getConsonantPercentage()
+        );
+        entity.setMostFrequentCharacter(stats.getMostFrequentCharacter());
+        entity.setMostFrequentCount(stats.getMostFrequentCount());
+        setHistogram(entity, analysis.getResult());
+        return entity;
+    }
+
+    // Either one packed column or one child row per character, depending on the configured storage
+    private void setHistogram(AnalysisResultEntity entity, Map<Character, Integer> characterCounts) {
+        List<AnalysisCharacterCountEntity> characterCountEntities = new ArrayList<>();
+        if (histogramStorage == AnalysisProperties.HistogramStorage.PACKED) {
+            entity.setCharacterHistogram(CharacterHistogramCodec.encode(characterCounts));
+        } else {
+            for (Map.Entry<Character, Integer> entry : characterCounts.entrySet()) {
+                characterCountEntities.add(new AnalysisCharacterCountEntity(entity, entry.getKey(), entry.getValue()));
+            }
+        }
+        entity.setCharacterCounts(characterCountEntities);
+    }
     
     /**
-     * Get paginated analysis history (latest first)
+     * Get a keyset page of analysis history (latest first) starting after the given cursor,
+     * or from the newest entry when the cursor is null. Skips the OFFSET scan and, unless
+     * an exact total is requested, the COUNT(*) as well: the total then comes from the
+     * planner statistics. Entries are read as projections, with the histograms of the
+     * whole page fetched in one query. In preview mode the text is cut short and only the
+     * most frequent characters are returned; see {@link #getAnalysisHistoryEntry(long)}.
+     * <p>
+     * The type, mode and creation range set on {@code filter} narrow the entries; the
+     * cursor only carries the position, so each page has to be requested with the same
+     * filter.
      */
-    public AnalysisHistoryPageDTO getAnalysisHistory(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<AnalysisResultEntity> entityPage = analysisResultRepository.findAllByOrderByCreatedAtDesc(pageable);
-        
-        // Convert entities to DTOs
-        List<AnalysisHistoryDTO> dtoList = entityPage.getContent().stream()
-                .map(analysisMapper::toHistoryDTO)
-                .collect(java.util.stream.Collectors.toList());
-        
+    public AnalysisHistoryPageDTO getAnalysisHistory(AnalysisHistoryQueryDTO filter, String cursor, int size,
+                                                     boolean includeTotal, boolean preview) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        validateFilter(filter);
+
+        // One extra row tells whether another page follows
+        AnalysisHistoryQueryDTO query = filter.toBuilder()
+                .limit(size + 1)
+                .previewLength(preview ? historyProperties.getPreviewLength() : null)
+                .previewTopCharacters(preview ? historyProperties.getPreviewTopCharacters() : null)
+                .build();
+        if (cursor != null) {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            query.setBeforeCreatedAt(position.createdAt());
+            query.setBeforeId(position.id());
+        }
+        List<AnalysisHistoryDTO> dtoList = analysisHistoryQueryRepository.findPage(query);
+
+        boolean hasNext = dtoList.size() > size;
+        if (hasNext) {
+            dtoList = dtoList.subList(0, size);
+        }
+        analysisHistoryQueryRepository.loadCharacterCounts(dtoList, query.getPreviewTopCharacters());
+
+        String nextCursor = null;
+        if (hasNext) {
+            AnalysisHistoryDTO lastEntry = dtoList.get(dtoList.size() - 1);
+            nextCursor = new HistoryCursor(lastEntry.getCreatedAt(), lastEntry.getId()).encode();
+        }
+
+        boolean filtered = filter.getAnalysisType() != null || filter.getMode() != null
+                || filter.getCreatedFrom() != null || filter.getCreatedTo() != null;
+        long total;
+        if (filtered) {
+            total = includeTotal ? analysisHistoryQueryRepository.count(query) : analysisHistoryQueryRepository.estimateCount(query);
+        } else {
+            total = includeTotal ? analysisResultRepository.count() : analysisResultRepository.estimateCount();
+        }
+        if (!includeTotal && cursor == null) {
+            // Statistics can lag behind a small or freshly written table
+            total = Math.max(total, dtoList.size() + (hasNext ? 1 : 0));
+        }
+
         return AnalysisHistoryPageDTO.builder()
                 .content(dtoList)
-                .totalElements((int) entityPage.getTotalElements())
-                .totalPages(entityPage.getTotalPages())
-                .size(entityPage.getSize())
-                .number(entityPage.getNumber())
-                .first(entityPage.isFirst())
-                .last(entityPage.isLast())
-                .hasNext(entityPage.hasNext())
+                .totalElements((int) Math.min(total, Integer.MAX_VALUE))
+                .totalPages((int) Math.min((total + size - 1) / size, Integer.MAX_VALUE))
+                .size(size)
+                .number(cursor == null ? 0 : null)
+                .first(cursor == null)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .totalEstimated(!includeTotal)
                 .build();
     }
-    
+
+    /**
+     * Search the history by content: entries whose text contains the words of {@code q}
+     * (web-search syntax, e.g. quoted phrases and -exclusions), contains it as a substring
+     * or closely resembles it. Only the newest word and substring matches and the closest
+     * resemblances, a configured number of each, are ranked; the last page tells whether
+     * that left matches out. Best matches come first, newest first among equal ranks.
+     * Pages are keyset-based like {@link #getAnalysisHistory(AnalysisHistoryQueryDTO,
+     * String, int, boolean, boolean)}, with no total; each page has to be requested with
+     * the same query and filter.
+     */
+    public AnalysisHistoryPageDTO searchHistory(String q, AnalysisHistoryQueryDTO filter, String cursor, int size,
+                                                boolean preview) {
+        String search = q == null ? "" : q.strip();
+        if (search.length() < MIN_SEARCH_LENGTH || search.length() > MAX_SEARCH_LENGTH) {
+            throw new ValidationException("Search query must be between " + MIN_SEARCH_LENGTH
+                    + " and " + MAX_SEARCH_LENGTH + " characters");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        validateFilter(filter);
+
+        // One extra row tells whether another page follows
+        AnalysisHistoryQueryDTO query = filter.toBuilder()
+                .search(search)
+                .searchCandidates(historyProperties.getSearchCandidates())
+                .limit(size + 1)
+                .previewLength(preview ? historyProperties.getPreviewLength() : null)
+                .previewTopCharacters(preview ? historyProperties.getPreviewTopCharacters() : null)
+                .build();
+        if (cursor != null) {
+            HistorySearchCursor position = HistorySearchCursor.decode(cursor);
+            query.setBeforeRank(position.rank());
+            query.setBeforeCreatedAt(position.createdAt());
+            query.setBeforeId(position.id());
+        }
+        List<AnalysisHistoryDTO> dtoList = analysisHistoryQueryRepository.findSearchPage(query);
+
+        boolean hasNext = dtoList.size() > size;
+        if (hasNext) {
+            dtoList = dtoList.subList(0, size);
+        }
+        analysisHistoryQueryRepository.loadCharacterCounts(dtoList, query.getPreviewTopCharacters());
+
+        String nextCursor = null;
+        Boolean truncated = null;
+        if (hasNext) {
+            AnalysisHistoryDTO lastEntry = dtoList.get(dtoList.size() - 1);
+            nextCursor = new HistorySearchCursor(lastEntry.getSearchRank(), lastEntry.getCreatedAt(), lastEntry.getId())
+                    .encode();
+        } else {
+            // Only asked once the candidates run out, when the client would otherwise take them as every match
+            truncated = analysisHistoryQueryRepository.isSearchTruncated(query);
+        }
+
+        log.debug("Searched history - Query: {}, Results: {}, More: {}", search, dtoList.size(), hasNext);
+        return AnalysisHistoryPageDTO.builder()
+                .content(dtoList)
+                .size(size)
+                .first(cursor == null)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .searchTruncated(truncated)
+                .build();
+    }
+
+    static void validateFilter(AnalysisHistoryQueryDTO filter) {
+        if (filter.getMode() != null && !HISTORY_MODES.contains(filter.getMode())) {
+            throw new ValidationException("Mode must be one of " + HISTORY_MODES);
+        }
+        if (filter.getCreatedFrom() != null && filter.getCreatedTo() != null
+                && !filter.getCreatedFrom().isBefore(filter.getCreatedTo())) {
+            throw new ValidationException("createdFrom must be before createdTo");
+        }
+    }
+
+    /**
+     * Get one history entry with its full text and histogram
+     */
+    public AnalysisHistoryDTO getAnalysisHistoryEntry(long id) {
+        return analysisHistoryQueryRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Analysis history entry " + id + " not found"));
+    }
+
     /**
-     * Delete all analysis history
+     * Delete all analysis history. The history tables and their rollups are truncated,
+     * which takes constant time regardless of their size; the logged count is the planner
+     * estimate from before.
      */
     @Transactional
     public void deleteAllHistory() {
-        long count = analysisResultRepository.count();
-        analysisResultRepository.deleteAllResults();
-        log.info("Deleted {} analysis results from database", count);
+        long count = analysisResultRepository.estimateCount();
+        analysisResultRepository.truncateAll();
+        log.info("Truncated analysis history - About {} analysis results deleted", count);
     }
     
     /**
@@ -0,0 +1,223 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records completed analyses in the history. By default every write goes straight to
+ * {@link AnalysisHistoryService}; with {@code textrover.analysis.history.write-behind}
+ * results are queued in memory and a background writer persists them in batched
+ * transactions, so request latency no longer includes the database round trip.
+ * <p>
+ * A batch is written once it reaches the configured size or its oldest result has
+ * waited for the maximum linger time. What happens when the queue is full is governed
+ * by the overflow policy. On shutdown the queue is drained before the writer exits.
+ */
+@Component
+public class AnalysisHistoryWriter {
+
+    private static final Logger log = LogManager.getLogger(AnalysisHistoryWriter.class);
+
+    // Offered on shutdown so a writer waiting out the linger time notices promptly
+    private static final PendingWrite WAKE_UP = new PendingWrite(null, null);
+
+    private final AnalysisHistoryService analysisHistoryService;
+    private final AnalysisProperties.History properties;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    private record PendingWrite(AnalysisResponseDTO analysis, String mode) {
+    }
+
+    public AnalysisHistoryWriter(AnalysisHistoryService analysisHistoryService,
+                                 AnalysisProperties analysisProperties,
+                                 MeterRegistry meterRegistry) {
+        this.analysisHistoryService = analysisHistoryService;
+        this.properties = analysisProperties.getHistory();
+        this.queue = new ArrayBlockingQueue<>(properties.isWriteBehind() ? properties.getQueueCapacity() : 1);
+
+        Gauge.builder("textrover.history.queue.size", queue, BlockingQueue::size)
+                .description("Analysis results waiting to be written to the history")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("textrover.history.write.written")
+                .description("Analysis results written by the write-behind writer")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("textrover.history.write.dropped")
+                .description("Analysis results discarded because the write-behind queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("textrover.history.write.failed")
+                .description("Analysis results lost because their batch could not be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isWriteBehind()) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Started write-behind history writer - Queue capacity: {}, Batch size: {}, Max linger: {}",
+                properties.getQueueCapacity(), properties.getBatchSize(), properties.getMaxLinger());
+    }
+
+    /**
+     * Stop accepting queued writes and wait for the writer to drain the queue. Results
+     * still queued after the shutdown timeout are written on the calling thread.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        queue.offer(WAKE_UP);
+        try {
+            writerThread.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("History writer did not drain within {}, writing the remaining {} results on shutdown",
+                    properties.getShutdownTimeout(), queue.size());
+        }
+        drainRemaining();
+        log.info("Stopped write-behind history writer");
+    }
+
+    public void write(AnalysisResponseDTO analysis, String mode) {
+        if (!running) {
+            analysisHistoryService.saveAnalysisResult(analysis, mode);
+            return;
+        }
+        enqueue(new PendingWrite(analysis, mode));
+    }
+
+    public void writeAll(List<AnalysisResponseDTO> analyses, String mode) {
+        if (!running) {
+            analysisHistoryService.saveAnalysisResults(analyses, mode);
+            return;
+        }
+        for (AnalysisResponseDTO analysis : analyses) {
+            enqueue(new PendingWrite(analysis, mode));
+        }
+    }
+
+    private void enqueue(PendingWrite pending) {
+        if (!queue.offer(pending)) {
+            switch (properties.getOverflowPolicy()) {
+                case BLOCK -> {
+                    try {
+                        queue.put(pending);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        writeThrough(pending);
+                        return;
+                    }
+                }
+                case WRITE_THROUGH -> {
+                    writeThrough(pending);
+                    return;
+                }
+                case DROP -> {
+                    droppedCounter.increment();
+                    log.warn("History queue is full, dropping analysis result - Type: {}", pending.analysis().getType());
+                    return;
+                }
+            }
+        }
+        // The writer may have finished draining between the running check and the offer
+        if (!running && queue.remove(pending)) {
+            writeThrough(pending);
+        }
+    }
+
+    private void writeThrough(PendingWrite pending) {
+        analysisHistoryService.saveAnalysisResult(pending.analysis(), pending.mode());
+    }
+
+    private void runWriter() {
+        int batchSize = properties.getBatchSize();
+        long lingerNanos = properties.getMaxLinger().toNanos();
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingWrite first = queue.poll(lingerNanos, TimeUnit.NANOSECONDS);
+                if (first == null || first == WAKE_UP) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null || next == WAKE_UP) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flush(batch);
+        }
+    }
+
+    private void drainRemaining() {
+        List<PendingWrite> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    // One transaction per mode, since a batched save records a single mode
+    private void flush(List<PendingWrite> batch) {
+        Map<String, List<AnalysisResponseDTO>> byMode = new LinkedHashMap<>();
+        for (PendingWrite pending : batch) {
+            if (pending == WAKE_UP) {
+                continue;
+            }
+            byMode.computeIfAbsent(pending.mode(), mode -> new ArrayList<>()).add(pending.analysis());
+        }
+        for (Map.Entry<String, List<AnalysisResponseDTO>> entry : byMode.entrySet()) {
+            try {
+                analysisHistoryService.saveAnalysisResults(entry.getValue(), entry.getKey());
+                writtenCounter.increment(entry.getValue().size());
+            } catch (RuntimeException e) {
+                failedCounter.increment(entry.getValue().size());
+                log.error("Failed to write {} analysis results to the history: {}",
+                        entry.getValue().size(), e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.textrover.service;
+
+import com.textrover.dto.AnalysisTypeDTO;
+import com.textrover.exception.TextRoverException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Identity of an analysis: its type and the SHA-256 of the text. Two requests with
+ * equal keys produce the same result, so the key is shared by the result cache and
+ * the in-flight request coalescing.
+ */
+public record AnalysisKey(AnalysisTypeDTO type, byte[] digest) {
+
+    public static AnalysisKey of(AnalysisTypeDTO type, String text) {
+        try {
+            return new AnalysisKey(type, MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new TextRoverException("CACHE_ERROR", "SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AnalysisKey other && type == other.type && Arrays.equals(digest, other.digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(type) + Arrays.hashCode(digest);
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisKey[type=" + type + ", digest=" + HexFormat.of().formatHex(digest, 0, 8) + "]";
+    }
+}
@@ -0,0 +1,184 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.repository.AnalysisPartitionRepository;
+import com.textrover.repository.AnalysisPartitionRepository.Partition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the time partitions of the history tables in shape: the partition for the current
+ * interval and the configured number of upcoming ones always exist, so inserts never land
+ * in the default partition, and partitions lying entirely before the retention cutoff are
+ * dropped or detached. Removing expired history is thereby a metadata operation; the
+ * batched {@link AnalysisHistoryRetentionJob} only has to clear the partition the cutoff
+ * falls into and anything in the default partition.
+ * <p>
+ * Maintenance runs on startup and then at the configured interval.
+ */
+@Component
+public class AnalysisPartitionManager {
+
+    private static final Logger log = LogManager.getLogger(AnalysisPartitionManager.class);
+
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private final AnalysisPartitionRepository analysisPartitionRepository;
+    private final AnalysisProperties.History properties;
+    private final Counter createdCounter;
+    private final Counter expiredCounter;
+    private final Counter failedCounter;
+    private final AtomicInteger partitionCount = new AtomicInteger();
+
+    private ScheduledExecutorService scheduler;
+
+    public AnalysisPartitionManager(AnalysisPartitionRepository analysisPartitionRepository,
+                                    AnalysisProperties analysisProperties,
+                                    MeterRegistry meterRegistry) {
+        this.analysisPartitionRepository = analysisPartitionRepository;
+        this.properties = analysisProperties.getHistory();
+
+        Gauge.builder("textrover.history.partitions", partitionCount, AtomicInteger::get)
+                .description("Range partitions of the history tables after the last maintenance run")
+                .register(meterRegistry);
+        this.createdCounter = Counter.builder("textrover.history.partitions.created")
+                .description("History partitions created ahead of time")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("textrover.history.partitions.expired")
+                .description("History partitions dropped or detached after expiring")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("textrover.history.partitions.failed")
+                .description("History partitions that could not be created or removed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0,
+                properties.getPartitionMaintenanceInterval().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Scheduled history partition maintenance - Partition interval: {}, Premake: {}, Expired partitions: {}",
+                properties.getPartitionInterval(), properties.getPartitionPremake(), properties.getExpiredPartitions());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Create missing current and upcoming partitions and remove expired ones
+     */
+    public void maintain() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        List<Partition> partitions = analysisPartitionRepository.findPartitions();
+        int count = partitions.size();
+
+        OffsetDateTime from = periodStart(now, properties.getPartitionInterval());
+        for (int i = 0; i <= properties.getPartitionPremake(); i++) {
+            OffsetDateTime to = nextPeriod(from, properties.getPartitionInterval());
+            if (!overlapsAny(partitions, from, to)) {
+                String suffix = from.format(SUFFIX_FORMAT);
+                try {
+                    analysisPartitionRepository.createPartition(suffix, from, to);
+                    createdCounter.increment();
+                    count++;
+                    log.info("Created history partition {} - Range: [{}, {})", suffix, from, to);
+                } catch (DataAccessException e) {
+                    // Typically rows for this range already sit in the default partition
+                    failedCounter.increment();
+                    log.warn("Could not create history partition {} - Range: [{}, {}): {}", suffix, from, to, e.getMessage());
+                }
+            }
+            from = to;
+        }
+
+        if (!properties.getRetention().isZero() && !properties.getRetention().isNegative()) {
+            OffsetDateTime cutoff = now.minus(properties.getRetention());
+            for (Partition partition : partitions) {
+                if (partition.to() != null && !partition.to().isAfter(cutoff)) {
+                    try {
+                        expire(partition);
+                        expiredCounter.increment();
+                        count--;
+                    } catch (DataAccessException e) {
+                        failedCounter.increment();
+                        log.warn("Could not remove expired history partition {}: {}", partition.suffix(), e.getMessage());
+                    }
+                }
+            }
+        }
+        partitionCount.set(count);
+    }
+
+    private void expire(Partition partition) {
+        if (properties.getExpiredPartitions() == AnalysisProperties.ExpiredPartitions.DETACH) {
+            analysisPartitionRepository.detachPartition(partition);
+            log.info("Detached expired history partition {} - Range: [{}, {})", partition.suffix(), partition.from(), partition.to());
+        } else {
+            analysisPartitionRepository.dropPartition(partition);
+            log.info("Dropped expired history partition {} - Range: [{}, {})", partition.suffix(), partition.from(), partition.to());
+        }
+    }
+
+    // An exception would cancel all further runs of a fixed-delay task
+    private void runSafely() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            log.error("History partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static boolean overlapsAny(List<Partition> partitions, OffsetDateTime from, OffsetDateTime to) {
+        for (Partition partition : partitions) {
+            if (partition.from() != null && partition.to() != null
+                    && partition.from().isBefore(to) && partition.to().isAfter(from)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static OffsetDateTime periodStart(OffsetDateTime time, AnalysisProperties.PartitionInterval interval) {
+        OffsetDateTime day = time.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        return switch (interval) {
+            case DAILY -> day;
+            case WEEKLY -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> day.withDayOfMonth(1);
+        };
+    }
+
+    static OffsetDateTime nextPeriod(OffsetDateTime start, AnalysisProperties.PartitionInterval interval) {
+        return switch (interval) {
+            case DAILY -> start.plusDays(1);
+            case WEEKLY -> start.plusWeeks(1);
+            case MONTHLY -> start.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.textrover.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisResponseDTO;
+
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of analysis responses keyed by {@link AnalysisKey}.
+ * Entries do not keep the text itself; it is re-attached on every hit.
+ */
+public class AnalysisResultCache {
+
+    private final boolean enabled;
+    private final Cache<AnalysisKey, AnalysisResponseDTO> cache;
+
+    public AnalysisResultCache(AnalysisProperties.Cache properties) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Return the cached analysis of the text or compute and cache it. Concurrent callers
+     * for the same key wait for a single computation.
+     */
+    public AnalysisResponseDTO get(AnalysisKey key, String text, Supplier<AnalysisResponseDTO> analysis) {
+        if (!enabled || key.type() == null) {
+            return analysis.get();
+        }
+        AnalysisResponseDTO cached = cache.get(key, k -> withoutText(analysis.get()));
+        return withText(cached, text);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public Cache<?, ?> getNativeCache() {
+        return cache;
+    }
+
+    private static AnalysisResponseDTO withoutText(AnalysisResponseDTO response) {
+        return withText(response, null);
+    }
+
+    private static AnalysisResponseDTO withText(AnalysisResponseDTO response, String text) {
+        AnalysisResponseDTO copy = new AnalysisResponseDTO();
+        copy.setType(response.getType());
+        copy.setText(text);
+        copy.setResult(response.getResult());
+        copy.setStatistics(response.getStatistics());
+        copy.setTotalCharacters(response.getTotalCharacters());
+        return copy;
+    }
+}
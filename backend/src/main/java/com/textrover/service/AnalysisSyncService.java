@@ -0,0 +1,177 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisBatchItemDTO;
+import com.textrover.dto.AnalysisRequestDTO;
+import com.textrover.dto.AnalysisSyncItemDTO;
+import com.textrover.dto.AnalysisSyncResultDTO;
+import com.textrover.entity.AnalysisResultEntity;
+import com.textrover.exception.ValidationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Records analyses that clients computed in offline mode. Each one is recomputed on the
+ * server, which is cheap with the analysis cache and the ASCII fast path, and the server's
+ * counts are what gets stored; the client's counts are only compared against them.
+ * Items are identified by a client-generated id, so a batch that is sent again after a
+ * lost response inserts nothing twice, even while the first attempt is still running:
+ * the insert claims each client id and skips those another sync holds. New items are
+ * written in one batched transaction.
+ */
+@Service
+public class AnalysisSyncService {
+
+    private static final Logger log = LogManager.getLogger(AnalysisSyncService.class);
+
+    private final TextAnalysisService textAnalysisService;
+    private final AnalysisHistoryService analysisHistoryService;
+    private final int maxSize;
+
+    public AnalysisSyncService(TextAnalysisService textAnalysisService,
+                               AnalysisHistoryService analysisHistoryService,
+                               AnalysisProperties analysisProperties) {
+        this.textAnalysisService = textAnalysisService;
+        this.analysisHistoryService = analysisHistoryService;
+        this.maxSize = analysisProperties.getHistory().getSyncMaxSize();
+    }
+
+    /**
+     * Record the given offline analyses, returning one result per item in input order
+     */
+    public List<AnalysisSyncResultDTO> sync(List<AnalysisSyncItemDTO> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ValidationException("Sync batch must contain at least one analysis");
+        }
+        if (items.size() > maxSize) {
+            throw new ValidationException("Sync batch cannot contain more than " + maxSize + " analyses");
+        }
+
+        AnalysisSyncResultDTO[] results = new AnalysisSyncResultDTO[items.size()];
+        Set<UUID> clientIds = new HashSet<>();
+        for (AnalysisSyncItemDTO item : items) {
+            if (item.getClientId() != null) {
+                clientIds.add(item.getClientId());
+            }
+        }
+        Map<UUID, Long> recorded = analysisHistoryService.findIdsByClientIds(clientIds);
+
+        // Only items that are neither recorded already nor repeated within this batch are analyzed
+        Set<UUID> seen = new HashSet<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<AnalysisRequestDTO> pendingRequests = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            AnalysisSyncItemDTO item = items.get(i);
+            if (item.getClientId() == null) {
+                results[i] = rejected(null, "clientId is required");
+            } else if (item.getRejection() != null) {
+                results[i] = rejected(item.getClientId(), item.getRejection());
+            } else if (recorded.containsKey(item.getClientId()) || !seen.add(item.getClientId())) {
+                results[i] = AnalysisSyncResultDTO.builder()
+                        .clientId(item.getClientId())
+                        .status(AnalysisSyncResultDTO.Status.DUPLICATE)
+                        .id(recorded.get(item.getClientId()))
+                        .build();
+            } else {
+                pendingIndexes.add(i);
+                pendingRequests.add(item.getRequest());
+            }
+        }
+
+        List<AnalysisBatchItemDTO> analyzed = textAnalysisService.analyzeBatch(pendingRequests);
+        List<Integer> insertIndexes = new ArrayList<>(analyzed.size());
+        List<AnalysisSyncItemDTO> inserts = new ArrayList<>(analyzed.size());
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < analyzed.size(); i++) {
+            int index = pendingIndexes.get(i);
+            AnalysisSyncItemDTO item = items.get(index);
+            AnalysisBatchItemDTO outcome = analyzed.get(i);
+            if (!outcome.isSuccessful()) {
+                results[index] = rejected(item.getClientId(), outcome.getErrorMessage());
+                continue;
+            }
+            item.setAnalysis(outcome.getResponse());
+            // Client clocks are not trusted to be in the past
+            if (item.getCreatedAt() == null || item.getCreatedAt().isAfter(now)) {
+                item.setCreatedAt(now);
+            }
+            insertIndexes.add(index);
+            inserts.add(item);
+        }
+
+        Map<UUID, Long> saved = new HashMap<>();
+        if (!inserts.isEmpty()) {
+            for (AnalysisResultEntity entity : analysisHistoryService.saveSyncedResults(inserts)) {
+                saved.put(entity.getClientId(), entity.getId());
+            }
+        }
+
+        // Items missing from the saved ones were recorded by an overlapping sync in the meantime
+        Set<UUID> raced = new HashSet<>();
+        for (AnalysisSyncItemDTO item : inserts) {
+            if (!saved.containsKey(item.getClientId())) {
+                raced.add(item.getClientId());
+            }
+        }
+        Map<UUID, Long> racedIds = raced.isEmpty() ? Map.of() : analysisHistoryService.findIdsByClientIds(raced);
+
+        int mismatches = 0;
+        for (int i = 0; i < inserts.size(); i++) {
+            AnalysisSyncItemDTO item = inserts.get(i);
+            Long id = saved.get(item.getClientId());
+            if (id == null) {
+                results[insertIndexes.get(i)] = AnalysisSyncResultDTO.builder()
+                        .clientId(item.getClientId())
+                        .status(AnalysisSyncResultDTO.Status.DUPLICATE)
+                        .id(racedIds.get(item.getClientId()))
+                        .build();
+                continue;
+            }
+            Boolean matchesClient = item.getClientResult() != null
+                    ? item.getClientResult().equals(item.getAnalysis().getResult())
+                    : null;
+            if (Boolean.FALSE.equals(matchesClient)) {
+                mismatches++;
+            }
+            results[insertIndexes.get(i)] = AnalysisSyncResultDTO.builder()
+                    .clientId(item.getClientId())
+                    .status(AnalysisSyncResultDTO.Status.INSERTED)
+                    .id(id)
+                    .matchesClient(matchesClient)
+                    .build();
+        }
+
+        log.info("Synced offline analyses - Received: {}, Inserted: {}, Duplicates: {}, Rejected: {}, Client mismatches: {}",
+                items.size(), saved.size(), count(results, AnalysisSyncResultDTO.Status.DUPLICATE),
+                count(results, AnalysisSyncResultDTO.Status.REJECTED), mismatches);
+        return List.of(results);
+    }
+
+    private static AnalysisSyncResultDTO rejected(UUID clientId, String error) {
+        return AnalysisSyncResultDTO.builder()
+                .clientId(clientId)
+                .status(AnalysisSyncResultDTO.Status.REJECTED)
+                .error(error)
+                .build();
+    }
+
+    private static long count(AnalysisSyncResultDTO[] results, AnalysisSyncResultDTO.Status status) {
+        long count = 0;
+        for (AnalysisSyncResultDTO result : results) {
+            if (result.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,143 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisStatisticsDTO;
+import com.textrover.dto.AnalysisTrafficDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+import com.textrover.exception.ValidationException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Analysis traffic of the last hour, kept in memory as a ring of fixed-length time slices.
+ * Recording an analysis touches only the slice of the current moment: the first writer
+ * of a new slice swaps a fresh one into the ring in place of the one a full span older,
+ * so updates are constant-time and lock-free. A window query merges the slices that
+ * still fall inside the window, so it never sees expired traffic.
+ * <p>
+ * The newest slice is still filling up, so a window covers between one slice less than
+ * its length and its full length; rates are computed over the time actually covered.
+ */
+public class AnalysisTrafficWindow {
+
+    private final Clock clock;
+    private final long sliceMillis;
+    private final AtomicReferenceArray<Slice> slices;
+    private final long startedAt;
+
+    private static final class Slice {
+
+        final long index;
+        final LongAdder analyses = new LongAdder();
+        final LongAdder vowelAnalyses = new LongAdder();
+        final LongAdder consonantAnalyses = new LongAdder();
+        final LongAdder textLength = new LongAdder();
+        final LongAdder letters = new LongAdder();
+        final LongAdder vowels = new LongAdder();
+        final LongAdder consonants = new LongAdder();
+        final LongAdder digits = new LongAdder();
+        final LongAdder symbols = new LongAdder();
+
+        Slice(long index) {
+            this.index = index;
+        }
+    }
+
+    public AnalysisTrafficWindow(AnalysisProperties.Traffic properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    AnalysisTrafficWindow(AnalysisProperties.Traffic properties, Clock clock) {
+        this.clock = clock;
+        this.sliceMillis = properties.getSliceLength().toMillis();
+        long sliceCount = properties.getSpan().toMillis() / sliceMillis;
+        if (sliceMillis <= 0 || sliceCount < 1 || sliceCount * sliceMillis != properties.getSpan().toMillis()) {
+            throw new IllegalArgumentException("Traffic span must be a positive multiple of the slice length");
+        }
+        this.slices = new AtomicReferenceArray<>((int) sliceCount);
+        this.startedAt = clock.millis();
+    }
+
+    public void record(AnalysisResponseDTO response) {
+        Slice slice = currentSlice(clock.millis() / sliceMillis);
+        if (slice == null) {
+            return;
+        }
+        slice.analyses.increment();
+        if (response.getType() == AnalysisTypeDTO.VOWELS) {
+            slice.vowelAnalyses.increment();
+        } else if (response.getType() == AnalysisTypeDTO.CONSONANTS) {
+            slice.consonantAnalyses.increment();
+        }
+        slice.textLength.add(response.getTotalCharacters());
+        AnalysisStatisticsDTO statistics = response.getStatistics();
+        if (statistics != null) {
+            slice.letters.add(statistics.getTotalLetters());
+            slice.vowels.add(statistics.getTotalVowels());
+            slice.consonants.add(statistics.getTotalConsonants());
+            slice.digits.add(statistics.getTotalDigits());
+            slice.symbols.add(statistics.getTotalSymbols());
+        }
+    }
+
+    // Null only for a writer that stalled past a full span and found its slice already reused
+    private Slice currentSlice(long index) {
+        int position = (int) (index % slices.length());
+        while (true) {
+            Slice slice = slices.get(position);
+            if (slice != null && slice.index >= index) {
+                return slice.index == index ? slice : null;
+            }
+            Slice fresh = new Slice(index);
+            if (slices.compareAndSet(position, slice, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Traffic of the last {@code window}, which must be a whole number of slices no longer
+     * than the span.
+     */
+    public AnalysisTrafficDTO query(Duration window) {
+        long windowMillis = window.toMillis();
+        long sliceCount = windowMillis / sliceMillis;
+        if (sliceCount < 1 || sliceCount > slices.length() || sliceCount * sliceMillis != windowMillis) {
+            throw new ValidationException("Window must be a multiple of " + Duration.ofMillis(sliceMillis)
+                    + " up to " + Duration.ofMillis(sliceMillis * slices.length()));
+        }
+
+        long now = clock.millis();
+        long newest = now / sliceMillis;
+        long oldest = newest - sliceCount + 1;
+        AnalysisTrafficDTO traffic = new AnalysisTrafficDTO();
+        for (int i = 0; i < slices.length(); i++) {
+            Slice slice = slices.get(i);
+            if (slice == null || slice.index < oldest || slice.index > newest) {
+                continue;
+            }
+            traffic.setAnalyses(traffic.getAnalyses() + slice.analyses.sum());
+            traffic.setVowelAnalyses(traffic.getVowelAnalyses() + slice.vowelAnalyses.sum());
+            traffic.setConsonantAnalyses(traffic.getConsonantAnalyses() + slice.consonantAnalyses.sum());
+            traffic.setTotalTextLength(traffic.getTotalTextLength() + slice.textLength.sum());
+            traffic.setTotalLetters(traffic.getTotalLetters() + slice.letters.sum());
+            traffic.setTotalVowels(traffic.getTotalVowels() + slice.vowels.sum());
+            traffic.setTotalConsonants(traffic.getTotalConsonants() + slice.consonants.sum());
+            traffic.setTotalDigits(traffic.getTotalDigits() + slice.digits.sum());
+            traffic.setTotalSymbols(traffic.getTotalSymbols() + slice.symbols.sum());
+        }
+
+        long from = Math.max(oldest * sliceMillis, startedAt);
+        traffic.setWindow(window);
+        traffic.setFrom(OffsetDateTime.ofInstant(Instant.ofEpochMilli(from), ZoneOffset.UTC));
+        traffic.setTo(OffsetDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneOffset.UTC));
+        return traffic;
+    }
+}
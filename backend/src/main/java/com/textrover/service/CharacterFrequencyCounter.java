@@ -0,0 +1,62 @@
+package com.textrover.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide occurrence counts of every character analyzed, safe for any number of
+ * concurrent writers. Each character has its own {@link LongAdder}, created on first use,
+ * so writers never take a lock and contended characters spread their updates over
+ * per-thread cells instead of retrying a single compare-and-set.
+ * <p>
+ * Counts only ever grow. A read of a single count is exact once all writers that
+ * started before it have returned.
+ */
+public class CharacterFrequencyCounter {
+
+    @FunctionalInterface
+    public interface CharCountConsumer {
+        void accept(char c, long count);
+    }
+
+    // One slot per UTF-16 code unit
+    private final AtomicReferenceArray<LongAdder> counts = new AtomicReferenceArray<>(Character.MAX_VALUE + 1);
+
+    public void add(char c, long count) {
+        LongAdder adder = counts.get(c);
+        if (adder == null) {
+            adder = new LongAdder();
+            if (!counts.compareAndSet(c, null, adder)) {
+                adder = counts.get(c);
+            }
+        }
+        adder.add(count);
+    }
+
+    public void addAll(Map<Character, Integer> histogram) {
+        if (histogram == null) {
+            return;
+        }
+        for (Map.Entry<Character, Integer> entry : histogram.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public long get(char c) {
+        LongAdder adder = counts.get(c);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Visit every character counted so far in ascending character order.
+     */
+    public void forEach(CharCountConsumer consumer) {
+        for (int c = 0; c < counts.length(); c++) {
+            LongAdder adder = counts.get(c);
+            if (adder != null) {
+                consumer.accept((char) c, adder.sum());
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.CharacterFrequenciesDTO;
+import com.textrover.dto.CharacterFrequencyDTO;
+import com.textrover.exception.ValidationException;
+import com.textrover.repository.CharacterFrequencyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the in-memory {@link CharacterFrequencyCounter} durable and answers top-N queries
+ * from it, so "most frequent characters overall" never scans analysis_character_counts.
+ * <p>
+ * The counts are of the analyses served, as recorded by {@link TextAnalysisService}, not
+ * of the history: cache hits and streamed documents count, imported entries do not, and
+ * deleting or expiring history leaves them as they are.
+ * <p>
+ * The stored counts are loaded into the counter before the first flush; after that, each
+ * flush adds what was counted since the previous one to the table. Counts of the last
+ * interval are lost if the process dies without shutting down.
+ */
+@Component
+public class CharacterFrequencyService {
+
+    private static final Logger log = LogManager.getLogger(CharacterFrequencyService.class);
+
+    static final int MAX_LIMIT = 1000;
+
+    // Most frequent first; ties resolve to the lowest character
+    private static final Comparator<CharacterFrequencyDTO> BY_FREQUENCY = Comparator
+            .comparingLong(CharacterFrequencyDTO::getCount).reversed()
+            .thenComparing(CharacterFrequencyDTO::getCharacter);
+
+    private final CharacterFrequencyCounter characterFrequencyCounter;
+    private final CharacterFrequencyRepository characterFrequencyRepository;
+    private final AnalysisProperties.Frequencies properties;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+
+    // Per character, the part of its count already in the table; guarded by this
+    private final long[] flushed = new long[Character.MAX_VALUE + 1];
+    private boolean loaded;
+
+    private ScheduledExecutorService scheduler;
+
+    public CharacterFrequencyService(CharacterFrequencyCounter characterFrequencyCounter,
+                                     CharacterFrequencyRepository characterFrequencyRepository,
+                                     AnalysisProperties analysisProperties,
+                                     MeterRegistry meterRegistry) {
+        this.characterFrequencyCounter = characterFrequencyCounter;
+        this.characterFrequencyRepository = characterFrequencyRepository;
+        this.properties = analysisProperties.getFrequencies();
+
+        this.flushedCounter = Counter.builder("textrover.frequencies.flushed")
+                .description("Character frequency rows updated by flushes")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("textrover.frequencies.flush.failed")
+                .description("Character frequency flushes that failed and will be retried")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "character-frequencies");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, interval, TimeUnit.MILLISECONDS);
+        log.info("Scheduled character frequency flushes - Interval: {}", properties.getFlushInterval());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        runSafely();
+    }
+
+    /**
+     * Write the counts gathered since the last flush, loading the stored counts first if
+     * that has not happened yet. A failed write is retried in full by the next flush.
+     */
+    public synchronized void flush() {
+        if (!loaded) {
+            load();
+        }
+
+        Map<Character, Long> totals = new HashMap<>();
+        Map<Character, Long> deltas = new HashMap<>();
+        characterFrequencyCounter.forEach((c, count) -> {
+            if (count > flushed[c]) {
+                totals.put(c, count);
+                deltas.put(c, count - flushed[c]);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        characterFrequencyRepository.addAll(deltas);
+        totals.forEach((c, count) -> flushed[c] = count);
+        flushedCounter.increment(deltas.size());
+        log.debug("Flushed character frequencies - Characters: {}", deltas.size());
+    }
+
+    private void load() {
+        Map<Character, Long> stored = characterFrequencyRepository.findAll();
+        stored.forEach((c, count) -> {
+            characterFrequencyCounter.add(c, count);
+            flushed[c] += count;
+        });
+        loaded = true;
+        log.info("Loaded character frequencies - Characters: {}", stored.size());
+    }
+
+    /**
+     * The {@code limit} most frequent characters across all analyses, read from memory
+     */
+    public CharacterFrequenciesDTO getTopCharacters(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        PriorityQueue<CharacterFrequencyDTO> top = new PriorityQueue<>(limit + 1, BY_FREQUENCY.reversed());
+        long[] total = new long[1];
+        int[] distinct = new int[1];
+        characterFrequencyCounter.forEach((c, count) -> {
+            if (count == 0) {
+                return;
+            }
+            total[0] += count;
+            distinct[0]++;
+            top.add(new CharacterFrequencyDTO(c, count));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        List<CharacterFrequencyDTO> characters = new ArrayList<>(top);
+        characters.sort(BY_FREQUENCY);
+        return CharacterFrequenciesDTO.builder()
+                .totalOccurrences(total[0])
+                .distinctCharacters(distinct[0])
+                .characters(characters)
+                .build();
+    }
+
+    // An exception would cancel all further runs of a fixed-delay task
+    private void runSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.error("Character frequency flush failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.textrover.service;
+
+import com.textrover.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in search results ordered by (rank, created_at, id) descending. Like
+ * {@link HistoryCursor} it is handed out as an opaque URL-safe token; the rank is written
+ * so that it parses back to the exact float the database computed.
+ */
+public record HistorySearchCursor(float rank, OffsetDateTime createdAt, long id) {
+
+    public String encode() {
+        String raw = rank + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistorySearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            if (first < 0 || first == last) {
+                throw new ValidationException("Invalid search cursor");
+            }
+            return new HistorySearchCursor(Float.parseFloat(raw.substring(0, first)),
+                    OffsetDateTime.parse(raw.substring(first + 1, last)),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid search cursor", e);
+        }
+    }
+}
@@ -1,147 +1,252 @@
 package com.textrover.service;
 
+import com.textrover.analysis.CharacterClassifier;
+import com.textrover.analysis.ParallelAnalysisTask;
+import com.textrover.analysis.TextAnalysisKernel;
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisBatchItemDTO;
 import com.textrover.dto.AnalysisRequestDTO;
 import com.textrover.dto.AnalysisResponseDTO;
 import com.textrover.dto.AnalysisStatisticsDTO;
 import com.textrover.dto.AnalysisTypeDTO;
+import com.textrover.exception.TextRoverException;
 import com.textrover.exception.ValidationException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 @Service
 public class TextAnalysisService {
 
     private static final Logger log = LogManager.getLogger(TextAnalysisService.class);
-    // Basic vowels and consonants
-    // Basic implementation, left here for presentation purposes.
-    private static final Set<Character> VOWELS = Set.of('a', 'e', 'i', 'o', 'u');
-    private static final Set<Character> CONSONANTS = "bcdfghjklmnpqrstvwxyz".chars()
-            .mapToObj(c -> (char) c)
-            .collect(Collectors.toSet());
-
-    // Extended vowels with accents
-    private static final Set<Character> EXTENDED_VOWELS = Set.of(
-            'a', 'e', 'i', 'o', 'u',
-            'à', 'á', 'â', 'ã', 'ä', 'å', 'æ',
-            'è', 'é', 'ê', 'ë',
-            'ì', 'í', 'î', 'ï',
-            'ò', 'ó', 'ô', 'õ', 'ö', 'ø',
-            'ù', 'ú', 'û', 'ü',
-            'ý', 'ÿ'
-    );
-
-    // Extended consonants with accents
-    private static final Set<Character> EXTENDED_CONSONANTS = Set.of(
-            'b', 'c', 'd', 'f', 'g', 'h', 'j', 'k', 'l', 'm', 'n', 'p', 'q', 'r', 's', 't', 'v', 'w', 'x', 'z',
-            'ç', 'ñ', 'ß'
-    );
+
+    // Smallest window the stream path reads into, whatever the parallel threshold
+    private static final int STREAM_CHUNK_SIZE = 8192;
+
+    private final CharacterClassifier characterClassifier;
+    private final AnalysisProperties analysisProperties;
+    private final ForkJoinPool analysisForkJoinPool;
+    private final AnalysisResultCache analysisResultCache;
+    private final CharacterFrequencyCounter characterFrequencyCounter;
+    private final AnalysisTrafficWindow analysisTrafficWindow;
+
+    public TextAnalysisService(CharacterClassifier characterClassifier,
+                               AnalysisProperties analysisProperties,
+                               ForkJoinPool analysisForkJoinPool,
+                               AnalysisResultCache analysisResultCache,
+                               CharacterFrequencyCounter characterFrequencyCounter,
+                               AnalysisTrafficWindow analysisTrafficWindow) {
+        this.characterClassifier = characterClassifier;
+        this.analysisProperties = analysisProperties;
+        this.analysisForkJoinPool = analysisForkJoinPool;
+        this.analysisResultCache = analysisResultCache;
+        this.characterFrequencyCounter = characterFrequencyCounter;
+        this.analysisTrafficWindow = analysisTrafficWindow;
+    }
 
     public AnalysisResponseDTO analyzeText(AnalysisRequestDTO request) {
-        if (request == null || request.getText() == null || request.getText().trim().isEmpty()) {
+        validate(request);
+        return analyze(AnalysisKey.of(request.getType(), request.getText()), request.getText());
+    }
+
+    void validate(AnalysisRequestDTO request) {
+        if (request == null || request.getText() == null || isBlank(request.getText())) {
             throw new ValidationException("Text cannot be empty or null");
         }
+    }
 
-        String text = request.getText();
-        AnalysisTypeDTO type = request.getType();
+    /**
+     * Analyze an already validated text whose key the caller has computed. Cache hits
+     * count towards the global character frequencies and recent traffic like fresh analyses.
+     */
+    AnalysisResponseDTO analyze(AnalysisKey key, String text) {
+        AnalysisResponseDTO response = analysisResultCache.get(key, text, () -> computeAnalysis(key.type(), text));
+        recordTraffic(response);
+        return response;
+    }
 
-        long startTime = System.currentTimeMillis();
-        String lowerText = text.toLowerCase();
-        Map<Character, Integer> result = new HashMap<>();
+    /**
+     * Count a served analysis towards the global character frequencies and recent traffic.
+     * Requests that share another request's in-flight analysis are counted through this too.
+     */
+    void recordTraffic(AnalysisResponseDTO response) {
+        characterFrequencyCounter.addAll(response.getResult());
+        analysisTrafficWindow.record(response);
+    }
 
-        // Use extended character sets for better international support
-        Predicate<Character> filter = type == AnalysisTypeDTO.VOWELS
-                ? EXTENDED_VOWELS::contains
-                : EXTENDED_CONSONANTS::contains;
+    private AnalysisResponseDTO computeAnalysis(AnalysisTypeDTO type, String text) {
+        long startTime = System.currentTimeMillis();
 
-        // Calculate comprehensive statistics
-        AnalysisStatisticsDTO statistics = calculateStatistics(text);
+        TextAnalysisKernel kernel = runKernel(text);
 
-        long letterCount = lowerText.chars()
-                .mapToObj(c -> (char) c)
-                .filter(Character::isLetter)
-                .filter(filter)
-                .peek(c -> log.trace("Processing character: '{}'", c))
-                .peek(c -> result.merge(c, 1, Integer::sum))
-                .count();
+        Map<Character, Integer> result = kernel.toResultMap(type);
+        AnalysisStatisticsDTO statistics = kernel.toStatistics();
 
         long processingTime = System.currentTimeMillis() - startTime;
         log.info("Analysis completed - Type: {}, Letters processed: {}, Processing time: {}ms",
-                type, letterCount, processingTime);
+                type, kernel.matchedLetters(type), processingTime);
 
         AnalysisResponseDTO response = new AnalysisResponseDTO();
         response.setType(type);
         response.setText(text);
         response.setResult(result);
         response.setStatistics(statistics);
+        response.setTotalCharacters(kernel.getTotalCharacters());
         return response;
     }
 
-    private AnalysisStatisticsDTO calculateStatistics(String text) {
-        AnalysisStatisticsDTO stats = new AnalysisStatisticsDTO();
-        String lowerText = text.toLowerCase();
+    /**
+     * Analyze a document of arbitrary size read from the given reader. The input is
+     * consumed in windows of a little over the parallel threshold and never materialised,
+     * so the response does not carry the text. Each window is cut after its last word
+     * separator and analyzed on the fork/join pool, the rest carried over into the next;
+     * once a window holds no separator at all, the remainder is read sequentially.
+     */
+    public AnalysisResponseDTO analyzeStream(AnalysisTypeDTO type, Reader reader) {
+        if (type == null) {
+            throw new ValidationException("Analysis type is required");
+        }
 
-        // Count different character types
-        int totalLetters = 0;
-        int totalVowels = 0;
-        int totalConsonants = 0;
-        int totalDigits = 0;
-        int totalSymbols = 0;
+        long startTime = System.currentTimeMillis();
+        AnalysisProperties.Parallel parallel = analysisProperties.getParallel();
+        char[] window = new char[Math.max(parallel.getThreshold() + parallel.getSegmentSize(), STREAM_CHUNK_SIZE)];
+        int length = 0;
+        TextAnalysisKernel kernel = null;
+        TextAnalysisKernel sequential = null;
+        try {
+            int read;
+            while ((read = reader.read(window, length, window.length - length)) != -1) {
+                length += read;
+                if (length < window.length) {
+                    continue;
+                }
+                int cut = afterLastWordSeparator(window, length);
+                if (cut < 0) {
+                    sequential = new TextAnalysisKernel(characterClassifier, analysisProperties.isAsciiFastPath());
+                    sequential.accept(window, 0, length);
+                    length = 0;
+                    while ((read = reader.read(window)) != -1) {
+                        sequential.accept(window, 0, read);
+                    }
+                    break;
+                }
+                kernel = append(kernel, runKernel(new String(window, 0, cut)));
+                System.arraycopy(window, cut, window, 0, length - cut);
+                length -= cut;
+            }
+        } catch (IOException e) {
+            throw new TextRoverException("STREAM_READ_ERROR", "Failed to read the document: " + e.getMessage(), e);
+        }
+        if (sequential != null) {
+            kernel = append(kernel, sequential);
+        } else if (length > 0 || kernel == null) {
+            kernel = append(kernel, runKernel(new String(window, 0, length)));
+        }
 
-        Map<Character, Integer> allCharCounts = new HashMap<>();
+        if (!kernel.hasContent()) {
+            throw new ValidationException("Text cannot be empty or null");
+        }
 
-        for (char c : lowerText.toCharArray()) {
-            allCharCounts.merge(c, 1, Integer::sum);
+        long processingTime = System.currentTimeMillis() - startTime;
+        log.info("Stream analysis completed - Type: {}, Characters read: {}, Letters processed: {}, Processing time: {}ms",
+                type, kernel.getTotalCharacters(), kernel.matchedLetters(type), processingTime);
 
-            if (Character.isLetter(c)) {
-                totalLetters++;
-                if (EXTENDED_VOWELS.contains(c)) {
-                    totalVowels++;
-                } else if (EXTENDED_CONSONANTS.contains(c)) {
-                    totalConsonants++;
-                }
-            } else if (Character.isDigit(c)) {
-                totalDigits++;
-            } else if (!Character.isWhitespace(c)) {
-                totalSymbols++;
+        AnalysisResponseDTO response = new AnalysisResponseDTO();
+        response.setType(type);
+        response.setResult(kernel.toResultMap(type));
+        response.setStatistics(kernel.toStatistics());
+        response.setTotalCharacters(kernel.getTotalCharacters());
+        recordTraffic(response);
+        return response;
+    }
+
+    // Every segment but the last ends right after a word separator, as merging requires
+    private static TextAnalysisKernel append(TextAnalysisKernel kernel, TextAnalysisKernel next) {
+        if (kernel == null) {
+            return next;
+        }
+        kernel.merge(next);
+        return kernel;
+    }
+
+    private int afterLastWordSeparator(char[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (CharacterClassifier.isWordSeparator(characterClassifier.lookup(buffer[i]))) {
+                return i + 1;
             }
         }
+        return -1;
+    }
+
+    /**
+     * Analyze every request of a batch concurrently on the analysis pool. The outcomes
+     * come back in input order; a rejected text yields an error item instead of
+     * failing the batch.
+     */
+    public List<AnalysisBatchItemDTO> analyzeBatch(List<AnalysisRequestDTO> requests) {
+        List<CompletableFuture<AnalysisBatchItemDTO>> futures = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            int index = i;
+            AnalysisRequestDTO request = requests.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> analyzeBatchItem(index, request), analysisForkJoinPool));
+        }
 
-        // Calculate word count
-        int wordCount = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
+        List<AnalysisBatchItemDTO> items = new ArrayList<>(futures.size());
+        for (CompletableFuture<AnalysisBatchItemDTO> future : futures) {
+            items.add(future.join());
+        }
+        return items;
+    }
 
-        // Find most frequent character (excluding spaces)
-        Character mostFrequentChar = null;
-        int mostFrequentCount = 0;
-        for (Map.Entry<Character, Integer> entry : allCharCounts.entrySet()) {
-            if (!Character.isWhitespace(entry.getKey()) && entry.getValue() > mostFrequentCount) {
-                mostFrequentChar = entry.getKey();
-                mostFrequentCount = entry.getValue();
+    private AnalysisBatchItemDTO analyzeBatchItem(int index, AnalysisRequestDTO request) {
+        try {
+            if (request == null || request.getType() == null) {
+                throw new ValidationException("Analysis type is required");
             }
+            return AnalysisBatchItemDTO.builder()
+                    .index(index)
+                    .response(analyzeText(request))
+                    .build();
+        } catch (TextRoverException e) {
+            log.warn("Batch item {} rejected: {}", index, e.getMessage());
+            return AnalysisBatchItemDTO.builder()
+                    .index(index)
+                    .errorCode(e.getErrorCode())
+                    .errorMessage(e.getMessage())
+                    .build();
+        }
+    }
+
+    private TextAnalysisKernel runKernel(String text) {
+        AnalysisProperties.Parallel parallel = analysisProperties.getParallel();
+        if (text.length() >= parallel.getThreshold()) {
+            log.debug("Analyzing {} characters on the fork/join pool", text.length());
+            return analysisForkJoinPool.invoke(
+                    new ParallelAnalysisTask(characterClassifier, analysisProperties.isAsciiFastPath(),
+                            text, parallel.getSegmentSize()));
         }
 
-        // Calculate percentages
-        double vowelPercentage = totalLetters > 0 ? (double) totalVowels / totalLetters * 100 : 0;
-        double consonantPercentage = totalLetters > 0 ? (double) totalConsonants / totalLetters * 100 : 0;
-
-        // Set all statistics
-        stats.setTotalLetters(totalLetters);
-        stats.setTotalVowels(totalVowels);
-        stats.setTotalConsonants(totalConsonants);
-        stats.setTotalDigits(totalDigits);
-        stats.setTotalSymbols(totalSymbols);
-        stats.setWordCount(wordCount);
-        stats.setVowelPercentage(Math.round(vowelPercentage * 100.0) / 100.0);
-        stats.setConsonantPercentage(Math.round(consonantPercentage * 100.0) / 100.0);
-        stats.setMostFrequentCharacter(mostFrequentChar);
-        stats.setMostFrequentCount(mostFrequentCount);
-
-        return stats;
+        // The classifier uses extended character sets for better international support
+        TextAnalysisKernel kernel = new TextAnalysisKernel(characterClassifier, analysisProperties.isAsciiFastPath());
+        kernel.accept(text);
+        return kernel;
+    }
+
+    // Same semantics as text.trim().isEmpty() without allocating the trimmed copy
+    private static boolean isBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,41 @@
+package com.textrover.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CharacterClassifierTest {
+
+    private final CharacterClassifier classifier = new CharacterClassifier();
+
+    @Test
+    void classify_shouldRecognizeExtendedVowelsAndConsonants() {
+        assertEquals(CharacterClassifier.VOWEL, classifier.classify('a'));
+        assertEquals(CharacterClassifier.VOWEL, classifier.classify('É'));
+        assertEquals(CharacterClassifier.VOWEL, classifier.classify('ÿ'));
+        assertEquals(CharacterClassifier.CONSONANT, classifier.classify('B'));
+        assertEquals(CharacterClassifier.CONSONANT, classifier.classify('ñ'));
+        assertEquals(CharacterClassifier.CONSONANT, classifier.classify('ß'));
+        assertEquals(CharacterClassifier.OTHER_LETTER, classifier.classify('y'));
+        assertEquals(CharacterClassifier.OTHER_LETTER, classifier.classify('ž'));
+        assertEquals(CharacterClassifier.DIGIT, classifier.classify('7'));
+        assertEquals(CharacterClassifier.SYMBOL, classifier.classify('!'));
+        assertEquals(CharacterClassifier.WHITESPACE, classifier.classify(' '));
+    }
+
+    @Test
+    void lookup_shouldMatchCharacterPredicatesAcrossTheWholeBmp() {
+        for (int i = 0; i <= Character.MAX_VALUE; i++) {
+            char c = Character.toLowerCase((char) i);
+            int classCode = classifier.classify((char) i);
+
+            assertEquals(Character.isLetter(c), CharacterClassifier.isLetterClass(classCode), "U+" + Integer.toHexString(i));
+            if (!Character.isLetter(c)) {
+                assertEquals(Character.isDigit(c), classCode == CharacterClassifier.DIGIT, "U+" + Integer.toHexString(i));
+                assertEquals(Character.isWhitespace(c), classCode == CharacterClassifier.WHITESPACE, "U+" + Integer.toHexString(i));
+            }
+            assertEquals(String.valueOf((char) i).matches("\\s"),
+                    CharacterClassifier.isWordSeparator(classifier.lookup((char) i)), "U+" + Integer.toHexString(i));
+        }
+    }
+}
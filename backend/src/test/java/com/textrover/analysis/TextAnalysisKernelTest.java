@@ -0,0 +1,94 @@
+package com.textrover.analysis;
+
+import com.textrover.dto.AnalysisStatisticsDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextAnalysisKernelTest {
+
+    private static final String ALPHABET =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 .,;:!?'\"-()\t\n\r\u000B\f"
+                    + "\u0001\u001F\u007Féñçßÿ中  😀";
+
+    private final CharacterClassifier classifier = new CharacterClassifier();
+
+    @Test
+    void asciiFastPath_shouldMatchScalarKernelOnRandomInput() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            String text = randomText(random, random.nextInt(600) + 1, round % 3 == 0);
+
+            TextAnalysisKernel scalar = new TextAnalysisKernel(classifier, false);
+            scalar.accept(text);
+            TextAnalysisKernel fast = new TextAnalysisKernel(classifier, true);
+            fast.accept(text);
+
+            assertSameResults(scalar, fast, text);
+        }
+    }
+
+    @Test
+    void asciiFastPath_shouldMatchScalarKernelAcrossStreamedChunks() {
+        Random random = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            char[] text = randomText(random, 5000, round % 2 == 0).toCharArray();
+
+            TextAnalysisKernel scalar = new TextAnalysisKernel(classifier, false);
+            scalar.accept(new String(text));
+            TextAnalysisKernel fast = new TextAnalysisKernel(classifier, true);
+            for (int offset = 0; offset < text.length; ) {
+                int length = Math.min(text.length - offset, random.nextInt(200) + 1);
+                fast.accept(text, offset, length);
+                offset += length;
+            }
+
+            assertSameResults(scalar, fast, new String(text));
+        }
+    }
+
+    @Test
+    void wordCount_shouldMatchWhitespaceSplitOnRandomInput() {
+        Random random = new Random(3);
+        for (int round = 0; round < 500; round++) {
+            String text = randomText(random, random.nextInt(100) + 1, false);
+            if (text.trim().isEmpty()) {
+                continue;
+            }
+
+            TextAnalysisKernel kernel = new TextAnalysisKernel(classifier, true);
+            kernel.accept(text);
+
+            assertEquals(text.trim().split("\\s+").length, kernel.toStatistics().getWordCount(), text);
+        }
+    }
+
+    private String randomText(Random random, int length, boolean asciiOnly) {
+        int alphabetSize = asciiOnly ? ALPHABET.indexOf('\u0001') : ALPHABET.length();
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(alphabetSize)));
+        }
+        return sb.toString();
+    }
+
+    private void assertSameResults(TextAnalysisKernel expected, TextAnalysisKernel actual, String text) {
+        assertEquals(expected.getTotalCharacters(), actual.getTotalCharacters(), text);
+        assertEquals(expected.toResultMap(AnalysisTypeDTO.VOWELS), actual.toResultMap(AnalysisTypeDTO.VOWELS), text);
+        assertEquals(expected.toResultMap(AnalysisTypeDTO.CONSONANTS), actual.toResultMap(AnalysisTypeDTO.CONSONANTS), text);
+
+        AnalysisStatisticsDTO expectedStats = expected.toStatistics();
+        AnalysisStatisticsDTO actualStats = actual.toStatistics();
+        assertEquals(expectedStats.getTotalLetters(), actualStats.getTotalLetters(), text);
+        assertEquals(expectedStats.getTotalVowels(), actualStats.getTotalVowels(), text);
+        assertEquals(expectedStats.getTotalConsonants(), actualStats.getTotalConsonants(), text);
+        assertEquals(expectedStats.getTotalDigits(), actualStats.getTotalDigits(), text);
+        assertEquals(expectedStats.getTotalSymbols(), actualStats.getTotalSymbols(), text);
+        assertEquals(expectedStats.getWordCount(), actualStats.getWordCount(), text);
+        assertEquals(expectedStats.getMostFrequentCharacter(), actualStats.getMostFrequentCharacter(), text);
+        assertEquals(expectedStats.getMostFrequentCount(), actualStats.getMostFrequentCount(), text);
+    }
+}
@@ -0,0 +1,45 @@
+package com.textrover.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CharacterHistogramCodecTest {
+
+    @Test
+    void encode_thenDecode_shouldRoundTrip() {
+        // Given
+        Map<Character, Integer> counts = new HashMap<>();
+        counts.put('a', 3);
+        counts.put('é', 200);
+        counts.put('中', 1);
+        counts.put('￿', Integer.MAX_VALUE);
+
+        // When
+        Map<Character, Integer> decoded = CharacterHistogramCodec.decode(CharacterHistogramCodec.encode(counts));
+
+        // Then
+        assertEquals(counts, decoded);
+    }
+
+    @Test
+    void encode_shouldWriteSortedVarintPairs() {
+        // Given
+        Map<Character, Integer> counts = Map.of('b', 1, 'a', 300);
+
+        // When
+        byte[] packed = CharacterHistogramCodec.encode(counts);
+
+        // Then - 'a', 300 (0xAC 0x02), 'b', 1
+        assertArrayEquals(new byte[]{'a', (byte) 0xAC, 0x02, 'b', 1}, packed);
+    }
+
+    @Test
+    void decode_emptyOrTruncated() {
+        assertTrue(CharacterHistogramCodec.decode(new byte[0]).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> CharacterHistogramCodec.decode(new byte[]{'a', (byte) 0x80}));
+    }
+}
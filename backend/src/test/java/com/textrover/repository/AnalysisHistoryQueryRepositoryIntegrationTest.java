@@ -0,0 +1,102 @@
+package com.textrover.repository;
+
+import com.textrover.dto.AnalysisHistoryDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisHistoryQueryRepositoryIntegrationTest extends PostgresIntegrationTest {
+
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.parse("2025-08-24T13:00:00Z");
+
+    @Autowired
+    private AnalysisHistoryQueryRepository analysisHistoryQueryRepository;
+
+    @Test
+    void findSearchPage_shouldRankWordMatchesAboveResemblances() {
+        // Given
+        insert(result("the quick brown fox", "online", CREATED_AT, Map.of('o', 2)),
+                result("the quick brown foxes", "online", CREATED_AT.plusMinutes(1), Map.of('o', 2)),
+                result("a lazy dog", "online", CREATED_AT.plusMinutes(2), Map.of('a', 2)));
+
+        // When
+        List<AnalysisHistoryDTO> page = analysisHistoryQueryRepository.findSearchPage(search("brown fox", 500, 10));
+
+        // Then
+        assertEquals(List.of("the quick brown fox", "the quick brown foxes"), texts(page));
+        assertTrue(page.get(0).getSearchRank() > page.get(1).getSearchRank());
+    }
+
+    @Test
+    void findSearchPage_shouldMatchSubstringsInsideWordsAndEscapeWildcards() {
+        // Given
+        insert(result("thebrownfox", "online", CREATED_AT, Map.of('o', 2)),
+                result("50% off", "online", CREATED_AT.plusMinutes(1), Map.of('o', 1)),
+                result("500 off", "online", CREATED_AT.plusMinutes(2), Map.of('o', 1)));
+
+        // When
+        List<AnalysisHistoryDTO> substring = analysisHistoryQueryRepository.findSearchPage(search("rownfo", 500, 10));
+        List<AnalysisHistoryDTO> percent = analysisHistoryQueryRepository.findSearchPage(search("0% o", 500, 10));
+
+        // Then
+        assertEquals(List.of("thebrownfox"), texts(substring));
+        assertEquals(List.of("50% off"), texts(percent));
+    }
+
+    @Test
+    void findSearchPage_shouldRankOnlyTheNewestWordMatchesAndReportTheRestAsTruncated() {
+        // Given
+        for (int i = 0; i < 6; i++) {
+            insert(result("zebra crossing " + i, "online", CREATED_AT.plusMinutes(i), Map.of('e', 1)));
+        }
+
+        // When
+        List<AnalysisHistoryDTO> page = analysisHistoryQueryRepository.findSearchPage(search("zebra crossing", 2, 10));
+
+        // Then
+        assertTrue(page.size() <= 6, "at most two candidates of each kind");
+        assertTrue(texts(page).containsAll(List.of("zebra crossing 5", "zebra crossing 4")));
+        assertTrue(analysisHistoryQueryRepository.isSearchTruncated(search("zebra crossing", 2, 10)));
+        assertFalse(analysisHistoryQueryRepository.isSearchTruncated(search("zebra crossing", 6, 10)));
+    }
+
+    @Test
+    void findSearchPage_fromKeysetPosition_shouldContinueAfterItWithinTheFilters() {
+        // Given
+        insert(result("brown fox one", "online", CREATED_AT, Map.of('o', 3)),
+                result("brown fox two", "online", CREATED_AT.plusMinutes(1), Map.of('o', 3)),
+                result("brown fox three", "offline", CREATED_AT.plusMinutes(2), Map.of('o', 3)));
+        AnalysisHistoryQueryDTO query = search("brown fox", 500, 1);
+        query.setMode("online");
+        AnalysisHistoryDTO first = analysisHistoryQueryRepository.findSearchPage(query).get(0);
+
+        // When
+        query.setBeforeRank(first.getSearchRank());
+        query.setBeforeCreatedAt(first.getCreatedAt());
+        query.setBeforeId(first.getId());
+        query.setLimit(10);
+        List<AnalysisHistoryDTO> next = analysisHistoryQueryRepository.findSearchPage(query);
+
+        // Then
+        assertEquals("brown fox two", first.getInputText());
+        assertEquals(List.of("brown fox one"), texts(next));
+    }
+
+    private static AnalysisHistoryQueryDTO search(String search, int candidates, int limit) {
+        return AnalysisHistoryQueryDTO.builder()
+                .search(search)
+                .searchCandidates(candidates)
+                .limit(limit)
+                .build();
+    }
+
+    private static List<String> texts(List<AnalysisHistoryDTO> entries) {
+        return entries.stream().map(AnalysisHistoryDTO::getInputText).toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.textrover.repository;
+
+import com.textrover.entity.AnalysisResultEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisPartitionRepositoryIntegrationTest extends PostgresIntegrationTest {
+
+    private static final String SUFFIX = "p20000101";
+    private static final OffsetDateTime FROM = OffsetDateTime.parse("2000-01-01T00:00:00Z");
+    private static final OffsetDateTime TO = OffsetDateTime.parse("2000-02-01T00:00:00Z");
+
+    @Autowired
+    private AnalysisPartitionRepository analysisPartitionRepository;
+
+    @Autowired
+    private SyncedClientIdRepository syncedClientIdRepository;
+
+    @AfterEach
+    void dropPartitionTables() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS textrover.analysis_character_counts_" + SUFFIX
+                + ", textrover.analysis_results_" + SUFFIX);
+    }
+
+    @Test
+    void createPartition_shouldRouteRowsInItsRangeToTheNewPartitionPair() {
+        // When
+        analysisPartitionRepository.createPartition(SUFFIX, FROM, TO);
+        insert(result("inside", "online", FROM.plusDays(1), Map.of('i', 2)),
+                result("outside", "online", TO, Map.of('o', 1)));
+
+        // Then
+        assertTrue(analysisPartitionRepository.findPartitions().contains(
+                new AnalysisPartitionRepository.Partition(SUFFIX, FROM, TO)));
+        assertEquals(List.of("inside"), jdbcTemplate.queryForList(
+                "SELECT input_text FROM textrover.analysis_results_" + SUFFIX, String.class));
+        assertEquals(1, countRows("analysis_character_counts_" + SUFFIX));
+        assertEquals(2, countRows("analysis_results"));
+    }
+
+    @Test
+    void dropPartition_shouldRemoveItsRowsAndTheClientIdsOfItsRange() {
+        // Given
+        analysisPartitionRepository.createPartition(SUFFIX, FROM, TO);
+        AnalysisResultEntity inside = result("inside", "offline", FROM.plusDays(1), Map.of('i', 2));
+        inside.setClientId(UUID.randomUUID());
+        AnalysisResultEntity outside = result("outside", "offline", TO, Map.of('o', 1));
+        outside.setClientId(UUID.randomUUID());
+        insert(inside, outside);
+        transactionTemplate.executeWithoutResult(status -> syncedClientIdRepository.claimAll(List.of(inside, outside)));
+
+        // When
+        analysisPartitionRepository.dropPartition(new AnalysisPartitionRepository.Partition(SUFFIX, FROM, TO));
+
+        // Then
+        assertFalse(analysisPartitionRepository.findPartitions().stream()
+                .anyMatch(partition -> partition.suffix().equals(SUFFIX)));
+        assertEquals(List.of("outside"), jdbcTemplate.queryForList(
+                "SELECT input_text FROM textrover.analysis_results", String.class));
+        assertEquals(1, countRows("analysis_character_counts"));
+        assertEquals(Map.of(outside.getClientId(), outside.getId()),
+                syncedClientIdRepository.findResultIds(List.of(inside.getClientId(), outside.getClientId())));
+    }
+
+    @Test
+    void detachPartition_shouldKeepItsRowsInStandaloneTablesOutsideTheHistory() {
+        // Given
+        analysisPartitionRepository.createPartition(SUFFIX, FROM, TO);
+        insert(result("inside", "online", FROM.plusDays(1), Map.of('i', 2)));
+
+        // When
+        analysisPartitionRepository.detachPartition(new AnalysisPartitionRepository.Partition(SUFFIX, FROM, TO));
+
+        // Then
+        assertEquals(0, countRows("analysis_results"));
+        assertEquals(0, countRows("analysis_character_counts"));
+        assertEquals(1, countRows("analysis_results_" + SUFFIX));
+        assertEquals(1, countRows("analysis_character_counts_" + SUFFIX));
+    }
+}
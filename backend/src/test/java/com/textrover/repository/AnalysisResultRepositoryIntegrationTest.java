@@ -0,0 +1,67 @@
+package com.textrover.repository;
+
+import com.textrover.entity.AnalysisResultEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisResultRepositoryIntegrationTest extends PostgresIntegrationTest {
+
+    private static final OffsetDateTime CUTOFF = OffsetDateTime.parse("2001-01-01T00:00:00Z");
+
+    @Autowired
+    private AnalysisResultRepository analysisResultRepository;
+
+    @Autowired
+    private SyncedClientIdRepository syncedClientIdRepository;
+
+    @Test
+    void deleteCreatedBefore_shouldDeleteTheOldestExpiredResultsWithTheirCountsAndClientIds() {
+        // Given
+        AnalysisResultEntity oldest = result("oldest", "offline", CUTOFF.minusDays(3), Map.of('o', 2, 'e', 1));
+        oldest.setClientId(UUID.randomUUID());
+        AnalysisResultEntity older = result("older", "online", CUTOFF.minusDays(2), Map.of('o', 1, 'e', 1));
+        AnalysisResultEntity old = result("old", "online", CUTOFF.minusDays(1), Map.of('o', 1));
+        AnalysisResultEntity recent = result("recent", "online", CUTOFF.plusDays(1), Map.of('e', 1));
+        insert(oldest, older, old, recent);
+        transactionTemplate.executeWithoutResult(status -> syncedClientIdRepository.claimAll(List.of(oldest)));
+
+        // When
+        int deleted = analysisResultRepository.deleteCreatedBefore(CUTOFF, 2);
+
+        // Then
+        assertEquals(2, deleted);
+        assertEquals(List.of("old", "recent"), jdbcTemplate.queryForList(
+                "SELECT input_text FROM textrover.analysis_results ORDER BY created_at", String.class));
+        assertEquals(List.of(old.getId(), recent.getId()), jdbcTemplate.queryForList(
+                "SELECT analysis_result_id FROM textrover.analysis_character_counts ORDER BY created_at", Long.class));
+        assertEquals(0, countRows("synced_client_ids"));
+    }
+
+    @Test
+    void truncateAll_shouldEmptyTheHistoryAndEverythingDerivedFromIt() {
+        // Given
+        AnalysisResultEntity synced = result("synced", "offline", CUTOFF, Map.of('e', 1));
+        synced.setClientId(UUID.randomUUID());
+        insert(synced, result("online", "online", CUTOFF, Map.of('o', 1)));
+        transactionTemplate.executeWithoutResult(status -> syncedClientIdRepository.claimAll(List.of(synced)));
+        jdbcTemplate.update("INSERT INTO textrover.analysis_rollups (bucket_start, analysis_type, mode, analyses, "
+                + "total_text_length, total_letters, total_vowels, total_consonants) VALUES (?, 'VOWELS', 'online', 1, 6, 5, 2, 3)",
+                CUTOFF);
+
+        // When
+        analysisResultRepository.truncateAll();
+
+        // Then
+        for (String table : List.of("analysis_results", "analysis_character_counts", "synced_client_ids",
+                "analysis_rollups")) {
+            assertEquals(0, countRows(table), table);
+        }
+    }
+}
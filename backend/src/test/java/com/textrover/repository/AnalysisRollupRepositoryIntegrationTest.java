@@ -0,0 +1,67 @@
+package com.textrover.repository;
+
+import com.textrover.dto.AnalysisAggregateBucketDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisRollupRepositoryIntegrationTest extends PostgresIntegrationTest {
+
+    private static final OffsetDateTime DAY = OffsetDateTime.parse("2025-08-24T00:00:00Z");
+
+    @Autowired
+    private AnalysisRollupRepository analysisRollupRepository;
+
+    @Test
+    void addAll_onExistingRows_shouldAddToTheirTotals() {
+        // Given
+        analysisRollupRepository.addAll(List.of(result("hello", "online", DAY.plusHours(13), Map.of())));
+
+        // When
+        analysisRollupRepository.addAll(List.of(
+                result("world", "online", DAY.plusHours(13).plusMinutes(59), Map.of()),
+                result("again", "online", DAY.plusHours(14), Map.of())));
+
+        // Then
+        assertEquals(List.of(rollup(DAY.plusHours(13), "online", 2, 10), rollup(DAY.plusHours(14), "online", 1, 5)),
+                analysisRollupRepository.findBuckets("hour", DAY, DAY.plusDays(1), null, null));
+    }
+
+    @Test
+    void findBuckets_byDay_shouldSumTheHoursOfEachDayWithinTheRangeAndFilters() {
+        // Given
+        analysisRollupRepository.addAll(List.of(
+                result("before", "online", DAY.minusHours(1), Map.of()),
+                result("first", "online", DAY.plusHours(1), Map.of()),
+                result("last", "online", DAY.plusHours(23), Map.of()),
+                result("offline", "offline", DAY.plusHours(23), Map.of()),
+                result("after", "online", DAY.plusDays(1), Map.of())));
+
+        // When
+        List<AnalysisAggregateBucketDTO> buckets = analysisRollupRepository.findBuckets("day", DAY, DAY.plusDays(1),
+                "VOWELS", "online");
+
+        // Then
+        assertEquals(List.of(rollup(DAY, "online", 2, 9)), buckets);
+    }
+
+    // Every result has 5 letters, 2 vowels and 3 consonants, so only analyses and text length vary
+    private static AnalysisAggregateBucketDTO rollup(OffsetDateTime bucketStart, String mode, long analyses,
+                                                     long totalTextLength) {
+        return AnalysisAggregateBucketDTO.builder()
+                .bucketStart(bucketStart)
+                .analysisType("VOWELS")
+                .mode(mode)
+                .analyses(analyses)
+                .totalTextLength(totalTextLength)
+                .totalLetters(5 * analyses)
+                .totalVowels(2 * analyses)
+                .totalConsonants(3 * analyses)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.textrover.repository;
+
+import com.textrover.entity.AnalysisCharacterCountEntity;
+import com.textrover.entity.AnalysisResultEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs repository queries against a real PostgreSQL with the schema built by the Liquibase
+ * changelog, for the SQL that mocks cannot check: CTEs, partition DDL, upserts and the
+ * text search operators. One container, set up like the docker-compose database, is shared
+ * by every subclass; each test starts from empty history tables. Skipped without Docker.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class PostgresIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("textrover")
+            .withUsername("textrover_user")
+            .withPassword("textrover_pass")
+            .withCopyFileToContainer(MountableFile.forHostPath("../database/init.sql"),
+                    "/docker-entrypoint-initdb.d/init.sql");
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AnalysisResultBatchRepository analysisResultBatchRepository;
+
+    // Started once for all subclasses, so the cached Spring context keeps pointing at it
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @BeforeEach
+    void truncateHistory() {
+        jdbcTemplate.execute("TRUNCATE TABLE textrover.analysis_character_counts, textrover.analysis_results, "
+                + "textrover.synced_client_ids, textrover.analysis_rollups");
+    }
+
+    /**
+     * Insert the given results through the batched write path, in one transaction
+     */
+    protected void insert(AnalysisResultEntity... results) {
+        transactionTemplate.executeWithoutResult(status -> analysisResultBatchRepository.insertAll(List.of(results)));
+    }
+
+    protected static AnalysisResultEntity result(String text, String mode, OffsetDateTime createdAt,
+                                                 Map<Character, Integer> characterCounts) {
+        AnalysisResultEntity result = new AnalysisResultEntity(text, "VOWELS", mode, 5, 2, 3, 0, 0, 1, 40.0, 60.0);
+        result.setCreatedAt(createdAt);
+        List<AnalysisCharacterCountEntity> counts = new ArrayList<>();
+        characterCounts.forEach((c, count) -> counts.add(new AnalysisCharacterCountEntity(result, c, count)));
+        result.setCharacterCounts(counts);
+        return result;
+    }
+
+    protected long countRows(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM textrover." + table, Long.class);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.textrover.repository;
+
+import com.textrover.entity.AnalysisResultEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncedClientIdRepositoryIntegrationTest extends PostgresIntegrationTest {
+
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.parse("2025-08-24T13:21:46.123456Z");
+
+    @Autowired
+    private SyncedClientIdRepository syncedClientIdRepository;
+
+    @Autowired
+    private AnalysisResultBatchRepository analysisResultBatchRepository;
+
+    @Test
+    void claimAll_shouldReturnOnlyTheClientIdsNotRecordedBefore() {
+        // Given
+        List<AnalysisResultEntity> first = synced(1);
+        claim(first);
+        List<AnalysisResultEntity> second = new ArrayList<>(first);
+        second.addAll(synced(1));
+
+        // When
+        Set<UUID> claimed = claim(second);
+
+        // Then
+        assertEquals(Set.of(second.get(1).getClientId()), claimed);
+        assertEquals(Map.of(first.get(0).getClientId(), first.get(0).getId(),
+                        second.get(1).getClientId(), second.get(1).getId()),
+                syncedClientIdRepository.findResultIds(List.of(second.get(0).getClientId(), second.get(1).getClientId())));
+    }
+
+    @Test
+    void claimAll_afterRolledBackClaim_shouldClaimTheClientIdsAgain() {
+        // Given
+        List<AnalysisResultEntity> results = synced(2);
+        transactionTemplate.executeWithoutResult(status -> {
+            syncedClientIdRepository.claimAll(results);
+            status.setRollbackOnly();
+        });
+
+        // When
+        Set<UUID> claimed = claim(results);
+
+        // Then
+        assertEquals(2, claimed.size());
+    }
+
+    @Test
+    void claimAll_ofTheSameClientIdsInConcurrentTransactions_shouldLetOnlyTheFirstClaimThem() throws Exception {
+        // Given
+        List<AnalysisResultEntity> results = synced(3);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        try {
+            // When
+            Future<Set<UUID>> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                Set<UUID> claimed = syncedClientIdRepository.claimAll(results);
+                firstClaimed.countDown();
+                try {
+                    assertTrue(commitFirst.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return claimed;
+            }));
+            assertTrue(firstClaimed.await(10, TimeUnit.SECONDS));
+            Future<Set<UUID>> second = executor.submit(() -> claim(results));
+            // The second claim waits on the rows the first one inserted
+            Thread.sleep(300);
+            assertFalse(second.isDone());
+            commitFirst.countDown();
+
+            // Then
+            assertEquals(3, first.get(10, TimeUnit.SECONDS).size());
+            assertEquals(Set.of(), second.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Set<UUID> claim(List<AnalysisResultEntity> results) {
+        return transactionTemplate.execute(status -> syncedClientIdRepository.claimAll(results));
+    }
+
+    // Offline results with ids and client ids, as a sync claims them before inserting
+    private List<AnalysisResultEntity> synced(int count) {
+        List<AnalysisResultEntity> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AnalysisResultEntity result = result("synced " + i, "offline", CREATED_AT, Map.of('e', 1));
+            result.setClientId(UUID.randomUUID());
+            results.add(result);
+        }
+        analysisResultBatchRepository.assignIds(results);
+        return results;
+    }
+}
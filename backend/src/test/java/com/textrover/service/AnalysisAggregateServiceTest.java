@@ -0,0 +1,104 @@
+package com.textrover.service;
+
+import com.textrover.dto.AnalysisAggregateBucketDTO;
+import com.textrover.dto.AnalysisAggregateDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import com.textrover.exception.ValidationException;
+import com.textrover.repository.AnalysisRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisAggregateServiceTest {
+
+    @Mock
+    private AnalysisRollupRepository analysisRollupRepository;
+
+    private AnalysisAggregateService analysisAggregateService;
+
+    @BeforeEach
+    void setUp() {
+        analysisAggregateService = new AnalysisAggregateService(analysisRollupRepository);
+    }
+
+    @Test
+    void getAggregates_shouldAlignTheRangeStartToTheBucket() {
+        // Given
+        AnalysisHistoryQueryDTO filter = AnalysisHistoryQueryDTO.builder()
+                .analysisType("VOWELS")
+                .mode("online")
+                .createdFrom(OffsetDateTime.parse("2025-08-24T13:21:46+02:00"))
+                .createdTo(OffsetDateTime.parse("2025-08-26T00:00:00Z"))
+                .build();
+        AnalysisAggregateBucketDTO bucket = AnalysisAggregateBucketDTO.builder()
+                .bucketStart(OffsetDateTime.parse("2025-08-24T00:00:00Z"))
+                .analysisType("VOWELS")
+                .mode("online")
+                .analyses(4)
+                .build();
+        when(analysisRollupRepository.findBuckets(any(), any(), any(), any(), any())).thenReturn(List.of(bucket));
+
+        // When
+        AnalysisAggregateDTO result = analysisAggregateService.getAggregates(filter, AnalysisAggregateService.Granularity.DAY);
+
+        // Then
+        assertEquals("day", result.getGranularity());
+        assertEquals(OffsetDateTime.parse("2025-08-24T00:00:00Z"), result.getCreatedFrom());
+        assertEquals(List.of(bucket), result.getBuckets());
+        verify(analysisRollupRepository).findBuckets("day", OffsetDateTime.parse("2025-08-24T00:00:00Z"),
+                OffsetDateTime.parse("2025-08-26T00:00:00Z"), "VOWELS", "online");
+    }
+
+    @Test
+    void getAggregates_withoutRange_shouldCoverTheLastDayHourly() {
+        // Given
+        when(analysisRollupRepository.findBuckets(any(), any(), any(), isNull(), isNull())).thenReturn(List.of());
+
+        // When
+        AnalysisAggregateDTO result = analysisAggregateService.getAggregates(
+                new AnalysisHistoryQueryDTO(), AnalysisAggregateService.Granularity.HOUR);
+
+        // Then
+        ArgumentCaptor<OffsetDateTime> from = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<OffsetDateTime> to = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(analysisRollupRepository).findBuckets(eq("hour"), from.capture(), to.capture(), isNull(), isNull());
+        assertEquals(0, from.getValue().getMinute());
+        long minutes = Duration.between(from.getValue(), to.getValue()).toMinutes();
+        assertTrue(minutes >= 24 * 60 && minutes < 25 * 60);
+        assertTrue(result.getBuckets().isEmpty());
+    }
+
+    @Test
+    void getAggregates_withTooManyBuckets_shouldThrowValidationException() {
+        // Given
+        AnalysisHistoryQueryDTO filter = AnalysisHistoryQueryDTO.builder()
+                .createdFrom(OffsetDateTime.parse("2025-01-01T00:00:00Z"))
+                .createdTo(OffsetDateTime.parse("2025-03-01T00:00:00Z"))
+                .build();
+
+        // When & Then
+        assertThrows(ValidationException.class,
+                () -> analysisAggregateService.getAggregates(filter, AnalysisAggregateService.Granularity.HOUR));
+        verifyNoInteractions(analysisRollupRepository);
+    }
+
+    @Test
+    void granularityOf_shouldAcceptKnownValuesCaseInsensitively() {
+        assertEquals(AnalysisAggregateService.Granularity.DAY, AnalysisAggregateService.Granularity.of("Day"));
+        assertThrows(ValidationException.class, () -> AnalysisAggregateService.Granularity.of("week"));
+    }
+}
@@ -0,0 +1,211 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisRequestDTO;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisTrafficDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+import com.textrover.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisCoalescingServiceTest {
+
+    private static final int DUPLICATES = 4;
+
+    @Mock
+    private AnalysisHistoryWriter analysisHistoryWriter;
+
+    @Test
+    void analyzeAndRecord_concurrentIdenticalRequests_shouldAnalyzeAndRecordOnce() throws Exception {
+        // Given
+        BlockingAnalysisService analysisService = new BlockingAnalysisService();
+        AnalysisCoalescingService service = coalescingService(analysisService, AnalysisProperties.DuplicateHistory.ONCE);
+
+        // When
+        List<AnalysisResponseDTO> responses = runConcurrently(service, analysisService);
+
+        // Then
+        assertEquals(1, analysisService.analyses.get());
+        assertEquals(DUPLICATES + 1, responses.size());
+        responses.forEach(response -> assertEquals(Map.of('e', 1, 'o', 2), response.getResult()));
+        verify(analysisHistoryWriter, times(1)).write(any(AnalysisResponseDTO.class), eq("online"));
+    }
+
+    @Test
+    void analyzeAndRecord_coalescedBurst_shouldCountEveryRequestInTheCharacterFrequencies() throws Exception {
+        // Given
+        BlockingAnalysisService analysisService = new BlockingAnalysisService();
+        AnalysisCoalescingService service = coalescingService(analysisService, AnalysisProperties.DuplicateHistory.ONCE);
+
+        // When
+        runConcurrently(service, analysisService);
+
+        // Then
+        assertEquals(1, analysisService.analyses.get());
+        assertEquals(DUPLICATES + 1, analysisService.frequencies.get('e'));
+        assertEquals(2 * (DUPLICATES + 1), analysisService.frequencies.get('o'));
+    }
+
+    @Test
+    void analyzeAndRecord_coalescedBurst_shouldCountEveryRequestInTheTraffic() throws Exception {
+        // Given
+        BlockingAnalysisService analysisService = new BlockingAnalysisService();
+        AnalysisCoalescingService service = coalescingService(analysisService, AnalysisProperties.DuplicateHistory.ONCE);
+
+        // When
+        runConcurrently(service, analysisService);
+
+        // Then
+        AnalysisTrafficDTO traffic = analysisService.traffic.query(Duration.ofMinutes(5));
+        assertEquals(DUPLICATES + 1, traffic.getAnalyses());
+        assertEquals(DUPLICATES + 1, traffic.getVowelAnalyses());
+    }
+
+    @Test
+    void analyzeAndRecord_perRequestHistory_shouldRecordEveryDuplicate() throws Exception {
+        // Given
+        BlockingAnalysisService analysisService = new BlockingAnalysisService();
+        AnalysisCoalescingService service = coalescingService(analysisService, AnalysisProperties.DuplicateHistory.PER_REQUEST);
+
+        // When
+        runConcurrently(service, analysisService);
+
+        // Then
+        assertEquals(1, analysisService.analyses.get());
+        verify(analysisHistoryWriter, times(DUPLICATES + 1)).write(any(AnalysisResponseDTO.class), eq("online"));
+    }
+
+    @Test
+    void analyzeAndRecord_sequentialRequests_shouldEachRecordHistory() {
+        // Given
+        BlockingAnalysisService analysisService = new BlockingAnalysisService();
+        analysisService.release.countDown();
+        AnalysisCoalescingService service = coalescingService(analysisService, AnalysisProperties.DuplicateHistory.ONCE);
+
+        // When
+        service.analyzeAndRecord(request("Hello World"), "online");
+        service.analyzeAndRecord(request("Hello World"), "online");
+
+        // Then
+        assertEquals(2, analysisService.analyses.get());
+        verify(analysisHistoryWriter, times(2)).write(any(AnalysisResponseDTO.class), eq("online"));
+    }
+
+    @Test
+    void analyzeAndRecord_blankText_shouldThrowValidationException() {
+        // Given
+        AnalysisCoalescingService service = coalescingService(new BlockingAnalysisService(), AnalysisProperties.DuplicateHistory.ONCE);
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> service.analyzeAndRecord(request("   "), "online"));
+        verifyNoInteractions(analysisHistoryWriter);
+    }
+
+    private AnalysisCoalescingService coalescingService(TextAnalysisService analysisService,
+                                                        AnalysisProperties.DuplicateHistory duplicateHistory) {
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getCoalescing().setDuplicateHistory(duplicateHistory);
+        return new AnalysisCoalescingService(analysisService, analysisHistoryWriter, properties);
+    }
+
+    /**
+     * Start one request, wait until it is analyzing, then pile up duplicates behind it
+     * before letting the analysis finish.
+     */
+    private List<AnalysisResponseDTO> runConcurrently(AnalysisCoalescingService service,
+                                                      BlockingAnalysisService analysisService) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES + 1);
+        try {
+            List<Future<AnalysisResponseDTO>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> service.analyzeAndRecord(request("Hello World"), "online")));
+            assertTrue(analysisService.started.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch submitted = new CountDownLatch(DUPLICATES);
+            for (int i = 0; i < DUPLICATES; i++) {
+                futures.add(executor.submit(() -> {
+                    submitted.countDown();
+                    return service.analyzeAndRecord(request("Hello World"), "online");
+                }));
+            }
+            assertTrue(submitted.await(5, TimeUnit.SECONDS));
+            // Give the duplicates time to reach the in-flight analysis
+            Thread.sleep(200);
+            analysisService.release.countDown();
+
+            List<AnalysisResponseDTO> responses = new ArrayList<>();
+            for (Future<AnalysisResponseDTO> future : futures) {
+                responses.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static AnalysisRequestDTO request(String text) {
+        AnalysisRequestDTO request = new AnalysisRequestDTO();
+        request.setType(AnalysisTypeDTO.VOWELS);
+        request.setText(text);
+        return request;
+    }
+
+    /**
+     * Analysis service whose analyses block until released, so duplicates can be lined up.
+     */
+    private static class BlockingAnalysisService extends TextAnalysisService {
+
+        private final AtomicInteger analyses = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final CharacterFrequencyCounter frequencies;
+        private final AnalysisTrafficWindow traffic;
+
+        BlockingAnalysisService() {
+            this(new CharacterFrequencyCounter(), new AnalysisTrafficWindow(new AnalysisProperties().getTraffic()));
+        }
+
+        private BlockingAnalysisService(CharacterFrequencyCounter frequencies, AnalysisTrafficWindow traffic) {
+            super(null, new AnalysisProperties(), null, null, frequencies, traffic);
+            this.frequencies = frequencies;
+            this.traffic = traffic;
+        }
+
+        @Override
+        AnalysisResponseDTO analyze(AnalysisKey key, String text) {
+            analyses.incrementAndGet();
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            AnalysisResponseDTO response = new AnalysisResponseDTO();
+            response.setType(key.type());
+            response.setText(text);
+            response.setResult(Map.of('e', 1, 'o', 2));
+            recordTraffic(response);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.textrover.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.textrover.dto.AnalysisHistoryDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
+import com.textrover.exception.ValidationException;
+import com.textrover.mapper.AnalysisMapper;
+import com.textrover.repository.AnalysisHistoryExportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisHistoryExporterTest {
+
+    @Mock
+    private AnalysisHistoryExportRepository analysisHistoryExportRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private AnalysisHistoryExporter exporter;
+
+    private final AnalysisHistoryQueryDTO filter = new AnalysisHistoryQueryDTO();
+
+    @BeforeEach
+    void setUp() {
+        exporter = new AnalysisHistoryExporter(analysisHistoryExportRepository, new AnalysisMapper(), objectMapper);
+    }
+
+    @Test
+    void export_asNdjson_shouldWriteOneItemPerLine() throws IOException {
+        // Given
+        streamEntries(entry(1L, "Hello"), entry(2L, "World"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exporter.export(filter, AnalysisHistoryExporter.Format.NDJSON, false, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("Hello", first.get("inputText").asText());
+        assertEquals(2, first.get("characterCounts").get("l").asInt());
+        assertEquals("World", objectMapper.readTree(lines[1]).get("inputText").asText());
+    }
+
+    @Test
+    void export_asGzippedCsv_shouldQuoteFieldsThatNeedIt() throws IOException {
+        // Given
+        streamEntries(entry(7L, "Say \"hi\",\nthen leave"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exporter.export(filter, AnalysisHistoryExporter.Format.CSV, true, out);
+
+        // Then
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(csv.startsWith("id,created_at,analysis_type,mode,"));
+        assertTrue(csv.contains("\n7,2025-08-24T13:21:46Z,VOWELS,online,"));
+        assertTrue(csv.endsWith(",\"Say \"\"hi\"\",\nthen leave\"\n"));
+    }
+
+    @Test
+    void formatOf_shouldAcceptKnownFormatsCaseInsensitively() {
+        assertEquals(AnalysisHistoryExporter.Format.CSV, AnalysisHistoryExporter.Format.of("CSV"));
+        assertEquals(AnalysisHistoryExporter.Format.NDJSON, AnalysisHistoryExporter.Format.of("ndjson"));
+        assertThrows(ValidationException.class, () -> AnalysisHistoryExporter.Format.of("xml"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamEntries(AnalysisHistoryDTO... entries) {
+        doAnswer(invocation -> {
+            Consumer<AnalysisHistoryDTO> consumer = invocation.getArgument(1);
+            for (AnalysisHistoryDTO entry : entries) {
+                consumer.accept(entry);
+            }
+            return null;
+        }).when(analysisHistoryExportRepository).streamAll(eq(filter), any(Consumer.class));
+    }
+
+    private static AnalysisHistoryDTO entry(long id, String text) {
+        return AnalysisHistoryDTO.builder()
+                .id(id)
+                .inputText(text)
+                .textTruncated(false)
+                .analysisType("VOWELS")
+                .mode("online")
+                .createdAt(OffsetDateTime.parse("2025-08-24T13:21:46Z"))
+                .totalLetters(10)
+                .totalVowels(3)
+                .totalConsonants(7)
+                .totalDigits(0)
+                .totalSymbols(1)
+                .wordCount(2)
+                .vowelPercentage(30.0)
+                .consonantPercentage(70.0)
+                .mostFrequentCharacter('l')
+                .mostFrequentCount(2)
+                .characterCounts(Map.of('l', 2, 'o', 1))
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.textrover.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisHistoryDTO;
+import com.textrover.dto.AnalysisHistoryImportDTO;
+import com.textrover.exception.ValidationException;
+import com.textrover.mapper.AnalysisMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisHistoryImporterTest {
+
+    @Mock
+    private AnalysisHistoryService analysisHistoryService;
+
+    private AnalysisHistoryImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getHistory().setImportChunkSize(2);
+        importer = new AnalysisHistoryImporter(analysisHistoryService, new AnalysisMapper(),
+                new ObjectMapper().findAndRegisterModules(), properties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importHistory_shouldLoadRecordsInChunks() throws IOException {
+        // Given
+        String ndjson = record(1, "Hello") + "\n" + record(2, "World") + "\n" + record(3, "Again") + "\n";
+
+        // When
+        AnalysisHistoryImportDTO result = importer.importHistory(stream(ndjson));
+
+        // Then
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getChunks());
+        ArgumentCaptor<List<AnalysisHistoryDTO>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(analysisHistoryService, times(2)).importEntries(chunks.capture());
+        assertEquals(List.of(2, 1), chunks.getAllValues().stream().map(List::size).toList());
+
+        AnalysisHistoryDTO first = chunks.getAllValues().get(0).get(0);
+        assertEquals("Hello", first.getInputText());
+        assertEquals("VOWELS", first.getAnalysisType());
+        assertEquals("offline", first.getMode());
+        assertEquals(OffsetDateTime.parse("2025-08-24T13:21:46Z").toInstant(), first.getCreatedAt().toInstant());
+        assertEquals(Map.of('l', 2, 'o', 1), first.getCharacterCounts());
+        assertEquals('l', first.getMostFrequentCharacter());
+    }
+
+    @Test
+    void importHistory_withInvalidRecord_shouldStopAndReportImportedCount() {
+        // Given
+        String ndjson = record(1, "Hello") + "\n" + record(2, "World") + "\n{\"id\": 3, \"inputText\": \"No stats\"}\n";
+
+        // When
+        ValidationException exception = assertThrows(ValidationException.class, () -> importer.importHistory(stream(ndjson)));
+
+        // Then
+        assertTrue(exception.getMessage().startsWith("Record 3 is invalid"));
+        assertTrue(exception.getMessage().endsWith("2 entries were imported before it"));
+        verify(analysisHistoryService, times(1)).importEntries(anyList());
+    }
+
+    @Test
+    void importHistory_withTooLongText_shouldRejectTheRecord() {
+        // Given
+        String ndjson = record(1, "Hello") + "\n" + record(2, "a".repeat(10_001)) + "\n";
+
+        // When
+        ValidationException exception = assertThrows(ValidationException.class, () -> importer.importHistory(stream(ndjson)));
+
+        // Then
+        assertTrue(exception.getMessage().startsWith("Record 2 is invalid (inputText is longer than 10000 characters)"));
+        verifyNoInteractions(analysisHistoryService);
+    }
+
+    @Test
+    void importHistory_withFutureCreationTime_shouldRejectTheRecord() {
+        // Given
+        String future = OffsetDateTime.now().plusDays(40).toString();
+        String ndjson = record(1, "Hello").replace("2025-08-24T13:21:46Z", future) + "\n";
+
+        // When
+        ValidationException exception = assertThrows(ValidationException.class, () -> importer.importHistory(stream(ndjson)));
+
+        // Then
+        assertTrue(exception.getMessage().startsWith("Record 1 is invalid (createdAt is in the future)"));
+        verifyNoInteractions(analysisHistoryService);
+    }
+
+    @Test
+    void importHistory_withMalformedJson_shouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> importer.importHistory(stream("{\"id\": ")));
+        verifyNoInteractions(analysisHistoryService);
+    }
+
+    private static String record(long id, String text) {
+        return """
+                {"id": %d, "inputText": "%s", "textTruncated": false, "analysisType": "vowels", "mode": "offline", \
+                "createdAt": "2025-08-24T13:21:46Z", "characterCounts": {"l": 2, "o": 1}, \
+                "statistics": {"totalLetters": 5, "totalVowels": 2, "totalConsonants": 3, "totalDigits": 0, \
+                "totalSymbols": 0, "wordCount": 1, "vowelPercentage": 40.0, "consonantPercentage": 60.0, \
+                "mostFrequentCharacter": "l", "mostFrequentCount": 2}}""".formatted(id, text);
+    }
+
+    private static InputStream stream(String ndjson) {
+        return new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8));
+    }
+}
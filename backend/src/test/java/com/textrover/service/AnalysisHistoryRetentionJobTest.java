@@ -0,0 +1,85 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.repository.AnalysisResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisHistoryRetentionJobTest {
+
+    @Mock
+    private AnalysisResultRepository analysisResultRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AnalysisHistoryRetentionJob job;
+
+    @BeforeEach
+    void setUp() {
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getHistory().setRetention(Duration.ofDays(30));
+        properties.getHistory().setRetentionBatchSize(2);
+        properties.getHistory().setRetentionBatchPause(Duration.ZERO);
+        job = new AnalysisHistoryRetentionJob(analysisResultRepository, properties, meterRegistry);
+    }
+
+    @Test
+    void purgeExpired_shouldDeleteInBatchesUntilABatchComesBackShort() {
+        // Given
+        when(analysisResultRepository.deleteCreatedBefore(any(), eq(2))).thenReturn(2, 2, 1);
+
+        // When
+        long deleted = job.purgeExpired();
+
+        // Then
+        assertEquals(5, deleted);
+        ArgumentCaptor<OffsetDateTime> cutoff = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(analysisResultRepository, times(3)).deleteCreatedBefore(cutoff.capture(), eq(2));
+        assertFalse(cutoff.getValue().isAfter(OffsetDateTime.now().minusDays(30)));
+        assertEquals(5.0, meterRegistry.get("textrover.history.retention.deleted").counter().count());
+        assertEquals(3.0, meterRegistry.get("textrover.history.retention.batches").counter().count());
+        assertEquals(5.0, meterRegistry.get("textrover.history.retention.run.deleted").gauge().value());
+    }
+
+    @Test
+    void purgeExpired_withNothingExpired_shouldRunASingleBatch() {
+        // Given
+        when(analysisResultRepository.deleteCreatedBefore(any(), eq(2))).thenReturn(0);
+
+        // When
+        long deleted = job.purgeExpired();
+
+        // Then
+        assertEquals(0, deleted);
+        verify(analysisResultRepository, times(1)).deleteCreatedBefore(any(), eq(2));
+        assertEquals(1, meterRegistry.get("textrover.history.retention.run").timer().count());
+    }
+
+    @Test
+    void start_withoutRetention_shouldNotSchedule() {
+        // Given
+        AnalysisHistoryRetentionJob disabled = new AnalysisHistoryRetentionJob(
+                analysisResultRepository, new AnalysisProperties(), new SimpleMeterRegistry());
+
+        // When
+        disabled.start();
+        disabled.stop();
+
+        // Then
+        verifyNoInteractions(analysisResultRepository);
+    }
+}
@@ -1,30 +1,46 @@
 package com.textrover.service;
 
+import com.textrover.config.AnalysisProperties;
 import com.textrover.dto.AnalysisHistoryDTO;
 import com.textrover.dto.AnalysisHistoryPageDTO;
+import com.textrover.dto.AnalysisHistoryQueryDTO;
 import com.textrover.entity.AnalysisCharacterCountEntity;
 import com.textrover.entity.AnalysisResultEntity;
+import com.textrover.exception.NotFoundException;
+import com.textrover.exception.ValidationException;
 import com.textrover.mapper.AnalysisMapper;
+import com.textrover.mapper.CharacterHistogramCodec;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisStatisticsDTO;
+import com.textrover.dto.AnalysisSyncItemDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+import com.textrover.repository.AnalysisHistoryQueryRepository;
+import com.textrover.repository.AnalysisResultBatchRepository;
+import com.textrover.repository.AnalysisResultCopyRepository;
 import com.textrover.repository.AnalysisResultRepository;
+import com.textrover.repository.AnalysisResultSingleStatementRepository;
+import com.textrover.repository.AnalysisRollupRepository;
+import com.textrover.repository.SyncedClientIdRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -34,10 +50,27 @@ class AnalysisHistoryServiceTest {
     @Mock
     private AnalysisResultRepository analysisResultRepository;
 
+    @Mock
+    private AnalysisResultBatchRepository analysisResultBatchRepository;
+
+    @Mock
+    private AnalysisResultSingleStatementRepository analysisResultSingleStatementRepository;
+
+    @Mock
+    private AnalysisResultCopyRepository analysisResultCopyRepository;
+
+    @Mock
+    private AnalysisHistoryQueryRepository analysisHistoryQueryRepository;
+
+    @Mock
+    private AnalysisRollupRepository analysisRollupRepository;
+
+    @Mock
+    private SyncedClientIdRepository syncedClientIdRepository;
+
     @Mock
     private AnalysisMapper analysisMapper;
 
-    @InjectMocks
     private AnalysisHistoryService analysisHistoryService;
 
     private AnalysisResultEntity sampleEntity;
@@ -46,6 +79,11 @@ class AnalysisHistoryServiceTest {
 
     @BeforeEach
     void setUp() {
+        analysisHistoryService = new AnalysisHistoryService(
+                analysisResultRepository, analysisResultBatchRepository, analysisResultSingleStatementRepository,
+                analysisResultCopyRepository, analysisHistoryQueryRepository, analysisRollupRepository, syncedClientIdRepository, analysisMapper,
+                new AnalysisProperties());
+
         sampleCharacterCounts = new HashMap<>();
         sampleCharacterCounts.put('a', 3);
         sampleCharacterCounts.put('e', 2);
@@ -174,115 +212,17 @@ class AnalysisHistoryServiceTest {
     }
 
     @Test
-    void getAnalysisHistory_shouldReturnPaginatedResults() {
+    void deleteAllHistory_shouldTruncateInsteadOfCountingAndDeletingRows() {
         // Given
-        List<AnalysisResultEntity> entities = List.of(sampleEntity);
-        Page<AnalysisResultEntity> page = new PageImpl<>(entities, PageRequest.of(0, 10), 1);
-        
-        when(analysisResultRepository.findAllByOrderByCreatedAtDesc(any(Pageable.class)))
-                .thenReturn(page);
-        when(analysisMapper.toHistoryDTO(sampleEntity))
-                .thenReturn(sampleHistoryDTO);
-
-        // When
-        AnalysisHistoryPageDTO result = analysisHistoryService.getAnalysisHistory(0, 10);
-
-        // Then
-        assertNotNull(result);
-        assertEquals(1, result.getContent().size());
-        assertEquals(1, result.getTotalElements());
-        assertEquals(1, result.getTotalPages());
-        assertEquals(10, result.getSize());
-        assertEquals(0, result.getNumber());
-        assertTrue(result.getFirst());
-        assertTrue(result.getLast());
-        assertFalse(result.getHasNext());
-
-        AnalysisHistoryDTO dto = result.getContent().get(0);
-        assertEquals(sampleHistoryDTO.getId(), dto.getId());
-        assertEquals(sampleHistoryDTO.getInputText(), dto.getInputText());
-        assertEquals(sampleHistoryDTO.getAnalysisType(), dto.getAnalysisType());
-
-        verify(analysisResultRepository, times(1))
-                .findAllByOrderByCreatedAtDesc(any(Pageable.class));
-        verify(analysisMapper, times(1)).toHistoryDTO(sampleEntity);
-    }
-
-    @Test
-    void getAnalysisHistory_withMultiplePages_shouldReturnCorrectPageInfo() {
-        // Given
-        List<AnalysisResultEntity> entities = List.of(sampleEntity);
-        Page<AnalysisResultEntity> page = new PageImpl<>(entities, PageRequest.of(1, 5), 15);
-        
-        when(analysisResultRepository.findAllByOrderByCreatedAtDesc(any(Pageable.class)))
-                .thenReturn(page);
-        when(analysisMapper.toHistoryDTO(sampleEntity))
-                .thenReturn(sampleHistoryDTO);
-
-        // When
-        AnalysisHistoryPageDTO result = analysisHistoryService.getAnalysisHistory(1, 5);
-
-        // Then
-        assertNotNull(result);
-        assertEquals(1, result.getContent().size());
-        assertEquals(15, result.getTotalElements());
-        assertEquals(3, result.getTotalPages());
-        assertEquals(5, result.getSize());
-        assertEquals(1, result.getNumber());
-        assertFalse(result.getFirst());
-        assertFalse(result.getLast());
-        assertTrue(result.getHasNext());
-    }
-
-    @Test
-    void getAnalysisHistory_withEmptyResults_shouldReturnEmptyPage() {
-        // Given
-        Page<AnalysisResultEntity> emptyPage = new PageImpl<>(new ArrayList<>(), PageRequest.of(0, 10), 0);
-        
-        when(analysisResultRepository.findAllByOrderByCreatedAtDesc(any(Pageable.class)))
-                .thenReturn(emptyPage);
-
-        // When
-        AnalysisHistoryPageDTO result = analysisHistoryService.getAnalysisHistory(0, 10);
-
-        // Then
-        assertNotNull(result);
-        assertEquals(0, result.getContent().size());
-        assertEquals(0, result.getTotalElements());
-        assertEquals(0, result.getTotalPages());
-        assertTrue(result.getFirst());
-        assertTrue(result.getLast());
-        assertFalse(result.getHasNext());
-
-        verify(analysisResultRepository, times(1))
-                .findAllByOrderByCreatedAtDesc(any(Pageable.class));
-        verify(analysisMapper, never()).toHistoryDTO(any());
-    }
-
-    @Test
-    void deleteAllHistory_shouldDeleteAllRecords() {
-        // Given
-        when(analysisResultRepository.count()).thenReturn(5L);
+        when(analysisResultRepository.estimateCount()).thenReturn(5L);
 
         // When
         analysisHistoryService.deleteAllHistory();
 
         // Then
-        verify(analysisResultRepository, times(1)).count();
-        verify(analysisResultRepository, times(1)).deleteAllResults();
-    }
-
-    @Test
-    void deleteAllHistory_withNoRecords_shouldStillCallDelete() {
-        // Given
-        when(analysisResultRepository.count()).thenReturn(0L);
-
-        // When
-        analysisHistoryService.deleteAllHistory();
-
-        // Then
-        verify(analysisResultRepository, times(1)).count();
-        verify(analysisResultRepository, times(1)).deleteAllResults();
+        verify(analysisResultRepository, times(1)).truncateAll();
+        verify(analysisResultRepository, never()).count();
+        verify(analysisResultRepository, never()).deleteAll();
     }
 
     @Test
@@ -389,25 +329,343 @@ class AnalysisHistoryServiceTest {
     }
 
     @Test
-    void getAnalysisHistory_withDifferentPageSizes_shouldRespectPageSize() {
+    void saveAnalysisResults_shouldInsertAllResultsInOneBatch() {
         // Given
-        List<AnalysisResultEntity> entities = List.of(sampleEntity);
-        Page<AnalysisResultEntity> page = new PageImpl<>(entities, PageRequest.of(0, 1), 10);
-        
-        when(analysisResultRepository.findAllByOrderByCreatedAtDesc(any(Pageable.class)))
-                .thenReturn(page);
-        when(analysisMapper.toHistoryDTO(sampleEntity))
-                .thenReturn(sampleHistoryDTO);
+        AnalysisStatisticsDTO stats = new AnalysisStatisticsDTO();
+        stats.setTotalLetters(10);
+        stats.setTotalVowels(3);
+        stats.setTotalConsonants(7);
+        stats.setWordCount(2);
+        stats.setMostFrequentCharacter('l');
+        stats.setMostFrequentCount(3);
+
+        List<AnalysisResponseDTO> analyses = new ArrayList<>();
+        for (String text : List.of("Hello World", "Hola Mundo")) {
+            AnalysisResponseDTO analysis = new AnalysisResponseDTO();
+            analysis.setType(AnalysisTypeDTO.VOWELS);
+            analysis.setText(text);
+            analysis.setResult(sampleCharacterCounts);
+            analysis.setStatistics(stats);
+            analyses.add(analysis);
+        }
 
         // When
-        AnalysisHistoryPageDTO result = analysisHistoryService.getAnalysisHistory(0, 1);
+        List<AnalysisResultEntity> result = analysisHistoryService.saveAnalysisResults(analyses, "online");
 
         // Then
-        assertNotNull(result);
-        assertEquals(1, result.getSize());
-        assertEquals(10, result.getTotalPages());
-        
-        verify(analysisResultRepository, times(1))
-                .findAllByOrderByCreatedAtDesc(eq(PageRequest.of(0, 1)));
+        assertEquals(2, result.size());
+        assertEquals("Hello World", result.get(0).getInputText());
+        assertEquals("Hola Mundo", result.get(1).getInputText());
+        assertEquals("VOWELS", result.get(0).getAnalysisType());
+        assertEquals("online", result.get(1).getMode());
+        assertEquals(3, result.get(1).getCharacterCounts().size());
+        assertSame(result.get(1), result.get(1).getCharacterCounts().get(0).getAnalysisResult());
+
+        verify(analysisResultBatchRepository, times(1)).insertAll(result);
+        verify(analysisRollupRepository, times(1)).addAll(result);
+        verify(analysisResultRepository, never()).save(any());
+    }
+
+    @Test
+    void saveSyncedResults_shouldInsertOnlyTheItemsWhoseClientIdItClaimed() {
+        // Given
+        UUID claimedId = UUID.randomUUID();
+        UUID takenId = UUID.randomUUID();
+        List<AnalysisSyncItemDTO> items = new ArrayList<>();
+        for (UUID clientId : List.of(claimedId, takenId)) {
+            AnalysisResponseDTO analysis = new AnalysisResponseDTO();
+            analysis.setType(AnalysisTypeDTO.VOWELS);
+            analysis.setText("Hello World");
+            analysis.setResult(sampleCharacterCounts);
+            analysis.setStatistics(new AnalysisStatisticsDTO());
+            items.add(AnalysisSyncItemDTO.builder()
+                    .clientId(clientId)
+                    .analysis(analysis)
+                    .createdAt(OffsetDateTime.parse("2025-08-24T13:21:46Z"))
+                    .build());
+        }
+        when(syncedClientIdRepository.claimAll(anyList())).thenReturn(Set.of(claimedId));
+
+        // When
+        List<AnalysisResultEntity> result = analysisHistoryService.saveSyncedResults(items);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(claimedId, result.get(0).getClientId());
+        assertEquals("offline", result.get(0).getMode());
+        InOrder inOrder = inOrder(analysisResultBatchRepository, syncedClientIdRepository);
+        inOrder.verify(analysisResultBatchRepository).assignIds(anyList());
+        inOrder.verify(syncedClientIdRepository).claimAll(anyList());
+        inOrder.verify(analysisResultBatchRepository).insertAll(result);
+        verify(analysisRollupRepository).addAll(result);
+    }
+
+    @Test
+    void saveAnalysisResult_withPackedHistogramStorage_shouldStoreHistogramColumnOnly() {
+        // Given
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getHistory().setHistogramStorage(AnalysisProperties.HistogramStorage.PACKED);
+        AnalysisHistoryService packedService = new AnalysisHistoryService(
+                analysisResultRepository, analysisResultBatchRepository, analysisResultSingleStatementRepository,
+                analysisResultCopyRepository, analysisHistoryQueryRepository, analysisRollupRepository, syncedClientIdRepository, analysisMapper,
+                properties);
+        when(analysisResultRepository.save(any(AnalysisResultEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        packedService.saveAnalysisResult(
+                "Hello World", "VOWELS", "online", sampleCharacterCounts,
+                10, 6, 4, 0, 1, 2, 60.0, 40.0, 'l', 3);
+
+        // Then
+        ArgumentCaptor<AnalysisResultEntity> saved = ArgumentCaptor.forClass(AnalysisResultEntity.class);
+        verify(analysisResultRepository).save(saved.capture());
+        assertTrue(saved.getValue().getCharacterCounts().isEmpty());
+        assertEquals(sampleCharacterCounts, CharacterHistogramCodec.decode(saved.getValue().getCharacterHistogram()));
+    }
+
+    @Test
+    void saveAnalysisResult_withSingleStatementPath_shouldBypassJpa() {
+        // Given
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getHistory().setPersistencePath(AnalysisProperties.PersistencePath.SINGLE_STATEMENT);
+        AnalysisHistoryService singleStatementService = new AnalysisHistoryService(analysisResultRepository,
+                analysisResultBatchRepository, analysisResultSingleStatementRepository, analysisResultCopyRepository,
+                analysisHistoryQueryRepository, analysisRollupRepository, syncedClientIdRepository, analysisMapper, properties);
+        when(analysisResultSingleStatementRepository.insert(any(AnalysisResultEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        AnalysisResultEntity result = singleStatementService.saveAnalysisResult(
+                "Hello World", "VOWELS", "online", sampleCharacterCounts,
+                10, 6, 4, 0, 1, 2, 60.0, 40.0, 'l', 3);
+
+        // Then
+        assertEquals(3, result.getCharacterCounts().size());
+        verify(analysisResultSingleStatementRepository, times(1)).insert(result);
+        verify(analysisResultRepository, never()).save(any());
+    }
+
+    @Test
+    void getAnalysisHistory_withoutCursor_shouldReturnFirstKeysetPageWithNextCursor() {
+        // Given
+        AnalysisHistoryDTO older = AnalysisHistoryDTO.builder()
+                .id(2L)
+                .createdAt(sampleHistoryDTO.getCreatedAt().minusMinutes(1))
+                .build();
+        when(analysisHistoryQueryRepository.findPage(AnalysisHistoryQueryDTO.builder().limit(2).build())).thenReturn(List.of(sampleHistoryDTO, older));
+        when(analysisResultRepository.estimateCount()).thenReturn(0L);
+
+        // When
+        AnalysisHistoryPageDTO result = analysisHistoryService.getAnalysisHistory(new AnalysisHistoryQueryDTO(), null, 1, false, false);
+
+        // Then
+        assertEquals(List.of(sampleHistoryDTO), result.getContent());
+        assertTrue(result.getFirst());
+        assertTrue(result.getHasNext());
+        assertTrue(result.getTotalEstimated());
+        assertEquals(2, result.getTotalElements());
+        assertEquals(new HistoryCursor(sampleHistoryDTO.getCreatedAt(), 1L), HistoryCursor.decode(result.getNextCursor()));
+        verify(analysisHistoryQueryRepository).loadCharacterCounts(List.of(sampleHistoryDTO), null);
+        verify(analysisResultRepository, never()).count();
+        verifyNoInteractions(analysisMapper);
+    }
+
+    @Test
+    void getAnalysisHistory_withCursor_shouldSeekPastCursorAndCountWhenAsked() {
+        // Given
+        HistoryCursor cursor = new HistoryCursor(OffsetDateTime.parse("2025-08-24T13:21:46.123456+02:00"), 42L);
+        AnalysisHistoryQueryDTO query = AnalysisHistoryQueryDTO.builder()
+                .beforeCreatedAt(cursor.createdAt())
+                .beforeId(42L)
+                .limit(21)
+                .build();
+        when(analysisHistoryQueryRepository.findPage(query)).thenReturn(List.of(sampleHistoryDTO));
+        when(analysisResultRepository.count()).thenReturn(43L);
+
+        // When
+        AnalysisHistoryPageDTO result = analysisHistoryService.getAnalysisHistory(new AnalysisHistoryQueryDTO(), cursor.encode(), 20, true, false);
+
+        // Then
+        assertFalse(result.getFirst());
+        assertTrue(result.getLast());
+        assertNull(result.getNextCursor());
+        assertFalse(result.getTotalEstimated());
+        assertEquals(43, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+    }
+
+    @Test
+    void getAnalysisHistory_withMalformedCursor_shouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> analysisHistoryService.getAnalysisHistory(new AnalysisHistoryQueryDTO(), "not-a-cursor", 20, false, false));
+        assertThrows(ValidationException.class, () -> analysisHistoryService.getAnalysisHistory(new AnalysisHistoryQueryDTO(), null, 0, false, false));
+    }
+
+    @Test
+    void getAnalysisHistory_withPreview_shouldRequestTruncatedTextAndTopCharacters() {
+        // Given
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getHistory().setPreviewLength(50);
+        properties.getHistory().setPreviewTopCharacters(3);
+        analysisHistoryService = new AnalysisHistoryService(analysisResultRepository, analysisResultBatchRepository,
+                analysisResultSingleStatementRepository, analysisResultCopyRepository, analysisHistoryQueryRepository,
+                analysisRollupRepository, syncedClientIdRepository, analysisMapper, properties);
+        AnalysisHistoryQueryDTO query = AnalysisHistoryQueryDTO.builder()
+                .limit(21)
+                .previewLength(50)
+                .previewTopCharacters(3)
+                .build();
+        when(analysisHistoryQueryRepository.findPage(query)).thenReturn(List.of(sampleHistoryDTO));
+
+        // When
+        AnalysisHistoryPageDTO result = analysisHistoryService.getAnalysisHistory(new AnalysisHistoryQueryDTO(), null, 20, true, true);
+
+        // Then
+        assertEquals(List.of(sampleHistoryDTO), result.getContent());
+        verify(analysisHistoryQueryRepository).loadCharacterCounts(List.of(sampleHistoryDTO), 3);
+    }
+
+    @Test
+    void searchHistory_shouldReturnRankedPageWithSearchCursor() {
+        // Given
+        sampleHistoryDTO.setSearchRank(0.75f);
+        AnalysisHistoryDTO weaker = AnalysisHistoryDTO.builder()
+                .id(2L)
+                .createdAt(sampleHistoryDTO.getCreatedAt())
+                .searchRank(0.1f)
+                .build();
+        AnalysisHistoryQueryDTO query = AnalysisHistoryQueryDTO.builder()
+                .search("brown fox")
+                .searchCandidates(500)
+                .limit(2)
+                .mode("online")
+                .build();
+        when(analysisHistoryQueryRepository.findSearchPage(query)).thenReturn(List.of(sampleHistoryDTO, weaker));
+
+        // When
+        AnalysisHistoryPageDTO result = analysisHistoryService.searchHistory("  brown fox ",
+                AnalysisHistoryQueryDTO.builder().mode("online").build(), null, 1, false);
+
+        // Then
+        assertEquals(List.of(sampleHistoryDTO), result.getContent());
+        assertTrue(result.getFirst());
+        assertTrue(result.getHasNext());
+        assertNull(result.getTotalElements());
+        assertEquals(new HistorySearchCursor(0.75f, sampleHistoryDTO.getCreatedAt(), 1L),
+                HistorySearchCursor.decode(result.getNextCursor()));
+        assertNull(result.getSearchTruncated());
+        verify(analysisHistoryQueryRepository).loadCharacterCounts(List.of(sampleHistoryDTO), null);
+        verify(analysisHistoryQueryRepository, never()).findPage(any());
+        verify(analysisHistoryQueryRepository, never()).isSearchTruncated(any());
+    }
+
+    @Test
+    void searchHistory_withCursorToLastPage_shouldSeekPastRankAndPositionAndReportTruncation() {
+        // Given
+        HistorySearchCursor cursor = new HistorySearchCursor(0.0607927f,
+                OffsetDateTime.parse("2025-08-24T13:21:46.123456+02:00"), 42L);
+        AnalysisHistoryQueryDTO query = AnalysisHistoryQueryDTO.builder()
+                .search("fox")
+                .searchCandidates(500)
+                .beforeRank(0.0607927f)
+                .beforeCreatedAt(cursor.createdAt())
+                .beforeId(42L)
+                .limit(21)
+                .build();
+        when(analysisHistoryQueryRepository.findSearchPage(query)).thenReturn(List.of(sampleHistoryDTO));
+        when(analysisHistoryQueryRepository.isSearchTruncated(query)).thenReturn(true);
+
+        // When
+        AnalysisHistoryPageDTO result = analysisHistoryService.searchHistory("fox", new AnalysisHistoryQueryDTO(),
+                cursor.encode(), 20, false);
+
+        // Then
+        assertFalse(result.getFirst());
+        assertTrue(result.getLast());
+        assertNull(result.getNextCursor());
+        assertTrue(result.getSearchTruncated());
+    }
+
+    @Test
+    void searchHistory_withInvalidQueryOrCursor_shouldThrowValidationException() {
+        AnalysisHistoryQueryDTO filter = new AnalysisHistoryQueryDTO();
+        assertThrows(ValidationException.class, () -> analysisHistoryService.searchHistory(" ab ", filter, null, 20, false));
+        assertThrows(ValidationException.class, () -> analysisHistoryService.searchHistory("a".repeat(201), filter, null, 20, false));
+        assertThrows(ValidationException.class, () -> analysisHistoryService.searchHistory("fox", filter, "not-a-cursor", 20, false));
+        assertThrows(ValidationException.class, () -> analysisHistoryService.searchHistory("fox", filter,
+                new HistoryCursor(OffsetDateTime.now(), 1L).encode(), 20, false));
+        verifyNoInteractions(analysisHistoryQueryRepository);
+    }
+
+    @Test
+    void getAnalysisHistoryEntry_shouldReturnEntryOrThrowNotFound() {
+        // Given
+        when(analysisHistoryQueryRepository.findById(1L)).thenReturn(Optional.of(sampleHistoryDTO));
+        when(analysisHistoryQueryRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertSame(sampleHistoryDTO, analysisHistoryService.getAnalysisHistoryEntry(1L));
+        assertThrows(NotFoundException.class, () -> analysisHistoryService.getAnalysisHistoryEntry(2L));
+    }
+
+    @Test
+    void getAnalysisHistory_withFilters_shouldPassFiltersAndEstimateFilteredTotal() {
+        // Given
+        OffsetDateTime from = OffsetDateTime.parse("2025-08-01T00:00:00Z");
+        AnalysisHistoryQueryDTO filter = AnalysisHistoryQueryDTO.builder()
+                .analysisType("VOWELS")
+                .mode("online")
+                .createdFrom(from)
+                .build();
+        AnalysisHistoryQueryDTO query = filter.toBuilder().limit(21).build();
+        when(analysisHistoryQueryRepository.findPage(query)).thenReturn(List.of(sampleHistoryDTO));
+        when(analysisHistoryQueryRepository.estimateCount(query)).thenReturn(7L);
+
+        // When
+        AnalysisHistoryPageDTO result = analysisHistoryService.getAnalysisHistory(filter, null, 20, false, false);
+
+        // Then
+        assertEquals(7, result.getTotalElements());
+        assertTrue(result.getTotalEstimated());
+        verify(analysisResultRepository, never()).estimateCount();
+        verify(analysisHistoryQueryRepository, never()).count(any());
+    }
+
+    @Test
+    void getAnalysisHistory_withInvalidFilters_shouldThrowValidationException() {
+        OffsetDateTime now = OffsetDateTime.now();
+        AnalysisHistoryQueryDTO unknownMode = AnalysisHistoryQueryDTO.builder().mode("batch").build();
+        AnalysisHistoryQueryDTO emptyRange = AnalysisHistoryQueryDTO.builder().createdFrom(now).createdTo(now).build();
+
+        assertThrows(ValidationException.class, () -> analysisHistoryService.getAnalysisHistory(unknownMode, null, 20, false, false));
+        assertThrows(ValidationException.class, () -> analysisHistoryService.getAnalysisHistory(emptyRange, null, 20, false, false));
+        verifyNoInteractions(analysisHistoryQueryRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importEntries_shouldCopyEntriesKeepingTheirCreationTime() {
+        // Given
+        OffsetDateTime recordedAt = OffsetDateTime.parse("2024-01-02T03:04:05Z");
+        AnalysisHistoryDTO entry = AnalysisHistoryDTO.builder()
+                .inputText("Hello")
+                .analysisType("VOWELS")
+                .mode("offline")
+                .createdAt(recordedAt)
+                .totalLetters(5).totalVowels(2).totalConsonants(3).totalDigits(0).totalSymbols(0).wordCount(1)
+                .vowelPercentage(40.0).consonantPercentage(60.0)
+                .characterCounts(Map.of('e', 1, 'o', 1))
+                .build();
+
+        // When
+        analysisHistoryService.importEntries(List.of(entry));
+
+        // Then
+        ArgumentCaptor<List<AnalysisResultEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(analysisResultCopyRepository).copyAll(captor.capture());
+        AnalysisResultEntity copied = captor.getValue().get(0);
+        assertEquals(recordedAt, copied.getCreatedAt());
+        assertEquals("offline", copied.getMode());
+        assertEquals(2, copied.getCharacterCounts().size());
+        verifyNoInteractions(analysisResultRepository, analysisResultBatchRepository);
     }
 }
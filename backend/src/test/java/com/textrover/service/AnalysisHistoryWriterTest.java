@@ -0,0 +1,142 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisHistoryWriterTest {
+
+    @Mock
+    private AnalysisHistoryService analysisHistoryService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AnalysisHistoryWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void write_withoutWriteBehind_shouldSaveSynchronously() {
+        // Given
+        writer = writer(new AnalysisProperties());
+        AnalysisResponseDTO analysis = analysis("Hello");
+
+        // When
+        writer.write(analysis, "online");
+
+        // Then
+        verify(analysisHistoryService).saveAnalysisResult(analysis, "online");
+        verify(analysisHistoryService, never()).saveAnalysisResults(anyList(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_withWriteBehind_shouldBatchAndDrainOnStop() {
+        // Given
+        AnalysisProperties properties = writeBehindProperties(100, 4);
+        properties.getHistory().setMaxLinger(Duration.ofSeconds(10));
+        writer = writer(properties);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            writer.write(analysis("text " + i), "online");
+        }
+        writer.stop();
+
+        // Then
+        ArgumentCaptor<List<AnalysisResponseDTO>> batches = ArgumentCaptor.forClass(List.class);
+        verify(analysisHistoryService, atLeast(3)).saveAnalysisResults(batches.capture(), eq("online"));
+        assertEquals(10, batches.getAllValues().stream().mapToInt(List::size).sum());
+        batches.getAllValues().forEach(batch -> assertTrue(batch.size() <= 4));
+        verify(analysisHistoryService, never()).saveAnalysisResult(any(), any());
+        assertEquals(10, meterRegistry.counter("textrover.history.write.written").count());
+    }
+
+    @Test
+    void write_withWriteBehind_shouldFlushPartialBatchAfterLinger() {
+        // Given
+        AnalysisProperties properties = writeBehindProperties(100, 50);
+        properties.getHistory().setMaxLinger(Duration.ofMillis(20));
+        writer = writer(properties);
+
+        // When
+        writer.write(analysis("Hello"), "online");
+
+        // Then
+        verify(analysisHistoryService, timeout(2000)).saveAnalysisResults(anyList(), eq("online"));
+    }
+
+    @Test
+    void write_whenQueueIsFull_shouldApplyOverflowPolicy() throws InterruptedException {
+        // Given
+        AnalysisProperties properties = writeBehindProperties(1, 1);
+        properties.getHistory().setOverflowPolicy(AnalysisProperties.OverflowPolicy.DROP);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        }).when(analysisHistoryService).saveAnalysisResults(anyList(), any());
+        writer = writer(properties);
+
+        // When - the writer holds the first result, the second fills the queue, the third overflows
+        writer.write(analysis("first"), "online");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writer.write(analysis("second"), "online");
+        writer.write(analysis("third"), "online");
+        release.countDown();
+        writer.stop();
+
+        // Then
+        assertEquals(1, meterRegistry.counter("textrover.history.write.dropped").count());
+        verify(analysisHistoryService, times(2)).saveAnalysisResults(anyList(), eq("online"));
+    }
+
+    private AnalysisHistoryWriter writer(AnalysisProperties properties) {
+        AnalysisHistoryWriter historyWriter = new AnalysisHistoryWriter(analysisHistoryService, properties, meterRegistry);
+        historyWriter.start();
+        return historyWriter;
+    }
+
+    private static AnalysisProperties writeBehindProperties(int queueCapacity, int batchSize) {
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getHistory().setWriteBehind(true);
+        properties.getHistory().setQueueCapacity(queueCapacity);
+        properties.getHistory().setBatchSize(batchSize);
+        return properties;
+    }
+
+    private static AnalysisResponseDTO analysis(String text) {
+        AnalysisResponseDTO response = new AnalysisResponseDTO();
+        response.setType(AnalysisTypeDTO.VOWELS);
+        response.setText(text);
+        response.setResult(Map.of('e', 1));
+        return response;
+    }
+}
@@ -0,0 +1,134 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.repository.AnalysisPartitionRepository;
+import com.textrover.repository.AnalysisPartitionRepository.Partition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisPartitionManagerTest {
+
+    @Mock
+    private AnalysisPartitionRepository analysisPartitionRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AnalysisProperties properties = new AnalysisProperties();
+
+    private AnalysisPartitionManager manager;
+
+    private OffsetDateTime currentMonth;
+
+    @BeforeEach
+    void setUp() {
+        properties.getHistory().setPartitionPremake(2);
+        manager = new AnalysisPartitionManager(analysisPartitionRepository, properties, meterRegistry);
+        currentMonth = AnalysisPartitionManager.periodStart(OffsetDateTime.now(), AnalysisProperties.PartitionInterval.MONTHLY);
+    }
+
+    @Test
+    void maintain_shouldCreateOnlyMissingUpcomingPartitions() {
+        // Given
+        when(analysisPartitionRepository.findPartitions()).thenReturn(List.of(monthPartition(currentMonth)));
+
+        // When
+        manager.maintain();
+
+        // Then
+        verify(analysisPartitionRepository, never()).createPartition(anyString(), eq(currentMonth), any());
+        verify(analysisPartitionRepository).createPartition(suffix(currentMonth.plusMonths(1)),
+                currentMonth.plusMonths(1), currentMonth.plusMonths(2));
+        verify(analysisPartitionRepository).createPartition(suffix(currentMonth.plusMonths(2)),
+                currentMonth.plusMonths(2), currentMonth.plusMonths(3));
+        assertEquals(2.0, meterRegistry.get("textrover.history.partitions.created").counter().count());
+        assertEquals(3.0, meterRegistry.get("textrover.history.partitions").gauge().value());
+        verify(analysisPartitionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    void maintain_withRetention_shouldDropPartitionsWhollyBeforeTheCutoff() {
+        // Given
+        properties.getHistory().setRetention(Duration.ofDays(60));
+        Partition expired = monthPartition(currentMonth.minusMonths(4));
+        Partition straddling = monthPartition(currentMonth.minusMonths(2));
+        when(analysisPartitionRepository.findPartitions()).thenReturn(List.of(expired, straddling,
+                monthPartition(currentMonth), monthPartition(currentMonth.plusMonths(1)), monthPartition(currentMonth.plusMonths(2))));
+
+        // When
+        manager.maintain();
+
+        // Then
+        verify(analysisPartitionRepository).dropPartition(expired);
+        verify(analysisPartitionRepository, never()).dropPartition(straddling);
+        verify(analysisPartitionRepository, never()).createPartition(anyString(), any(), any());
+        assertEquals(1.0, meterRegistry.get("textrover.history.partitions.expired").counter().count());
+    }
+
+    @Test
+    void maintain_withDetach_shouldDetachInsteadOfDropping() {
+        // Given
+        properties.getHistory().setRetention(Duration.ofDays(60));
+        properties.getHistory().setExpiredPartitions(AnalysisProperties.ExpiredPartitions.DETACH);
+        Partition expired = monthPartition(currentMonth.minusMonths(4));
+        when(analysisPartitionRepository.findPartitions()).thenReturn(List.of(expired));
+
+        // When
+        manager.maintain();
+
+        // Then
+        verify(analysisPartitionRepository).detachPartition(expired);
+        verify(analysisPartitionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    void maintain_whenCreationFails_shouldCountTheFailureAndContinue() {
+        // Given
+        when(analysisPartitionRepository.findPartitions()).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("default partition holds rows"))
+                .when(analysisPartitionRepository).createPartition(eq(suffix(currentMonth)), any(), any());
+
+        // When
+        manager.maintain();
+
+        // Then
+        verify(analysisPartitionRepository, times(3)).createPartition(anyString(), any(), any());
+        assertEquals(1.0, meterRegistry.get("textrover.history.partitions.failed").counter().count());
+        assertEquals(2.0, meterRegistry.get("textrover.history.partitions").gauge().value());
+    }
+
+    @Test
+    void periodStart_shouldAlignToUtcIntervals() {
+        OffsetDateTime time = OffsetDateTime.parse("2025-08-24T01:30:00+02:00");
+
+        assertEquals(OffsetDateTime.parse("2025-08-23T00:00:00Z"),
+                AnalysisPartitionManager.periodStart(time, AnalysisProperties.PartitionInterval.DAILY));
+        assertEquals(OffsetDateTime.parse("2025-08-18T00:00:00Z"),
+                AnalysisPartitionManager.periodStart(time, AnalysisProperties.PartitionInterval.WEEKLY));
+        assertEquals(OffsetDateTime.parse("2025-08-01T00:00:00Z"),
+                AnalysisPartitionManager.periodStart(time, AnalysisProperties.PartitionInterval.MONTHLY));
+    }
+
+    private static Partition monthPartition(OffsetDateTime from) {
+        return new Partition(suffix(from), from, from.plusMonths(1));
+    }
+
+    private static String suffix(OffsetDateTime from) {
+        return String.format("p%04d%02d%02d", from.getYear(), from.getMonthValue(), from.getDayOfMonth());
+    }
+}
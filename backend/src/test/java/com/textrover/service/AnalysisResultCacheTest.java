@@ -0,0 +1,78 @@
+package com.textrover.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisResultCacheTest {
+
+    @Test
+    void get_repeatedText_shouldComputeOnceAndReattachText() {
+        // Given
+        AnalysisResultCache cache = new AnalysisResultCache(new AnalysisProperties().getCache());
+        AtomicInteger computations = new AtomicInteger();
+        String text = "Hello World";
+        String sameText = new String(text);
+
+        // When
+        AnalysisResponseDTO first = cache.get(AnalysisKey.of(AnalysisTypeDTO.VOWELS, text), text, () -> analysis(computations, text));
+        AnalysisResponseDTO second = cache.get(AnalysisKey.of(AnalysisTypeDTO.VOWELS, sameText), sameText, () -> analysis(computations, text));
+
+        // Then
+        assertEquals(1, computations.get());
+        assertEquals(text, first.getText());
+        assertEquals(text, second.getText());
+        assertEquals(first.getResult(), second.getResult());
+
+        CacheStats stats = cache.getNativeCache().stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    void get_differentTypeOrText_shouldMiss() {
+        // Given
+        AnalysisResultCache cache = new AnalysisResultCache(new AnalysisProperties().getCache());
+        AtomicInteger computations = new AtomicInteger();
+
+        // When
+        cache.get(AnalysisKey.of(AnalysisTypeDTO.VOWELS, "Hello"), "Hello", () -> analysis(computations, "Hello"));
+        cache.get(AnalysisKey.of(AnalysisTypeDTO.CONSONANTS, "Hello"), "Hello", () -> analysis(computations, "Hello"));
+        cache.get(AnalysisKey.of(AnalysisTypeDTO.VOWELS, "Hello!"), "Hello!", () -> analysis(computations, "Hello!"));
+
+        // Then
+        assertEquals(3, computations.get());
+    }
+
+    @Test
+    void get_whenDisabled_shouldAlwaysCompute() {
+        // Given
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getCache().setEnabled(false);
+        AnalysisResultCache cache = new AnalysisResultCache(properties.getCache());
+        AtomicInteger computations = new AtomicInteger();
+
+        // When
+        cache.get(AnalysisKey.of(AnalysisTypeDTO.VOWELS, "Hello"), "Hello", () -> analysis(computations, "Hello"));
+        cache.get(AnalysisKey.of(AnalysisTypeDTO.VOWELS, "Hello"), "Hello", () -> analysis(computations, "Hello"));
+
+        // Then
+        assertEquals(2, computations.get());
+    }
+
+    private AnalysisResponseDTO analysis(AtomicInteger computations, String text) {
+        computations.incrementAndGet();
+        AnalysisResponseDTO response = new AnalysisResponseDTO();
+        response.setType(AnalysisTypeDTO.VOWELS);
+        response.setText(text);
+        response.setResult(Map.of('e', 1, 'o', 1));
+        return response;
+    }
+}
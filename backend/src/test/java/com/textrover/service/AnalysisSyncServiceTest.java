@@ -0,0 +1,248 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisBatchItemDTO;
+import com.textrover.dto.AnalysisRequestDTO;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisSyncItemDTO;
+import com.textrover.dto.AnalysisSyncResultDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+import com.textrover.entity.AnalysisResultEntity;
+import com.textrover.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisSyncServiceTest {
+
+    @Mock
+    private TextAnalysisService textAnalysisService;
+
+    @Mock
+    private AnalysisHistoryService analysisHistoryService;
+
+    private AnalysisSyncService analysisSyncService;
+
+    @BeforeEach
+    void setUp() {
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getHistory().setSyncMaxSize(3);
+        analysisSyncService = new AnalysisSyncService(textAnalysisService, analysisHistoryService, properties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sync_shouldInsertNewItemsAndReportDuplicates() {
+        // Given
+        UUID recordedId = UUID.randomUUID();
+        UUID newId = UUID.randomUUID();
+        when(analysisHistoryService.findIdsByClientIds(any())).thenReturn(Map.of(recordedId, 41L));
+        when(textAnalysisService.analyzeBatch(anyList())).thenAnswer(invocation -> analyzed(invocation.getArgument(0)));
+        when(analysisHistoryService.saveSyncedResults(anyList())).thenAnswer(invocation -> saved(invocation.getArgument(0), 42L));
+
+        // When
+        List<AnalysisSyncResultDTO> results = analysisSyncService.sync(List.of(
+                item(recordedId, "Hello", Map.of('e', 1, 'o', 1)),
+                item(newId, "Hello", Map.of('e', 1, 'o', 1)),
+                item(newId, "Hello", Map.of('e', 1, 'o', 1))));
+
+        // Then
+        assertEquals(AnalysisSyncResultDTO.Status.DUPLICATE, results.get(0).getStatus());
+        assertEquals(41L, results.get(0).getId());
+        assertEquals(AnalysisSyncResultDTO.Status.INSERTED, results.get(1).getStatus());
+        assertEquals(42L, results.get(1).getId());
+        assertTrue(results.get(1).getMatchesClient());
+        assertEquals(AnalysisSyncResultDTO.Status.DUPLICATE, results.get(2).getStatus());
+
+        ArgumentCaptor<List<AnalysisRequestDTO>> analyzedRequests = ArgumentCaptor.forClass(List.class);
+        verify(textAnalysisService).analyzeBatch(analyzedRequests.capture());
+        assertEquals(1, analyzedRequests.getValue().size());
+    }
+
+    @Test
+    void sync_ofTheSameBatchTwiceAtOnce_shouldInsertEachItemOnceAndReportTheOtherAsDuplicate() throws Exception {
+        // Given both syncs pass the pre-check before either inserts; the claim decides the winner
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        Map<UUID, Long> claimed = new ConcurrentHashMap<>();
+        AtomicLong nextId = new AtomicLong(100);
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch bothChecked = new CountDownLatch(2);
+        when(analysisHistoryService.findIdsByClientIds(any())).thenAnswer(invocation -> {
+            if (lookups.incrementAndGet() <= 2) {
+                bothChecked.countDown();
+                bothChecked.await();
+                return Collections.emptyMap();
+            }
+            Map<UUID, Long> ids = new HashMap<>();
+            for (UUID clientId : invocation.<Collection<UUID>>getArgument(0)) {
+                ids.put(clientId, claimed.get(clientId));
+            }
+            return ids;
+        });
+        when(textAnalysisService.analyzeBatch(anyList())).thenAnswer(invocation -> analyzed(invocation.getArgument(0)));
+        when(analysisHistoryService.saveSyncedResults(anyList())).thenAnswer(invocation -> {
+            List<AnalysisResultEntity> inserted = new ArrayList<>();
+            for (AnalysisSyncItemDTO item : invocation.<List<AnalysisSyncItemDTO>>getArgument(0)) {
+                long id = nextId.getAndIncrement();
+                if (claimed.putIfAbsent(item.getClientId(), id) == null) {
+                    AnalysisResultEntity entity = new AnalysisResultEntity();
+                    entity.setId(id);
+                    entity.setClientId(item.getClientId());
+                    inserted.add(entity);
+                }
+            }
+            return inserted;
+        });
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<List<AnalysisSyncResultDTO>> responses = new ArrayList<>();
+        try {
+            List<Future<List<AnalysisSyncResultDTO>>> futures = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                futures.add(executor.submit(() -> analysisSyncService.sync(List.of(
+                        item(firstId, "Hello", null),
+                        item(secondId, "World", null)))));
+            }
+            for (Future<List<AnalysisSyncResultDTO>> future : futures) {
+                responses.add(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        for (int i = 0; i < 2; i++) {
+            AnalysisSyncResultDTO first = responses.get(0).get(i);
+            AnalysisSyncResultDTO second = responses.get(1).get(i);
+            assertEquals(Set.of(AnalysisSyncResultDTO.Status.INSERTED, AnalysisSyncResultDTO.Status.DUPLICATE),
+                    Set.of(first.getStatus(), second.getStatus()));
+            assertEquals(first.getId(), second.getId());
+            assertEquals(claimed.get(first.getClientId()), first.getId());
+        }
+    }
+
+    @Test
+    void sync_shouldRejectInvalidItemsAndFlagClientMismatches() {
+        // Given
+        UUID mismatchId = UUID.randomUUID();
+        when(analysisHistoryService.findIdsByClientIds(any())).thenReturn(Collections.emptyMap());
+        when(textAnalysisService.analyzeBatch(anyList())).thenAnswer(invocation -> analyzed(invocation.getArgument(0)));
+        when(analysisHistoryService.saveSyncedResults(anyList())).thenAnswer(invocation -> saved(invocation.getArgument(0), 7L));
+        AnalysisSyncItemDTO invalid = AnalysisSyncItemDTO.builder()
+                .clientId(UUID.randomUUID())
+                .rejection("Request validation failed: text: size must be between 1 and 10000")
+                .build();
+
+        // When
+        List<AnalysisSyncResultDTO> results = analysisSyncService.sync(List.of(
+                item(null, "Hello", null),
+                invalid,
+                item(mismatchId, "Hello", Map.of('e', 5))));
+
+        // Then
+        assertEquals(AnalysisSyncResultDTO.Status.REJECTED, results.get(0).getStatus());
+        assertEquals("clientId is required", results.get(0).getError());
+        assertEquals(AnalysisSyncResultDTO.Status.REJECTED, results.get(1).getStatus());
+        assertTrue(results.get(1).getError().startsWith("Request validation failed"));
+        assertEquals(AnalysisSyncResultDTO.Status.INSERTED, results.get(2).getStatus());
+        assertFalse(results.get(2).getMatchesClient());
+    }
+
+    @Test
+    void sync_shouldClampFutureCreationTimes() {
+        // Given
+        when(analysisHistoryService.findIdsByClientIds(any())).thenReturn(Collections.emptyMap());
+        when(textAnalysisService.analyzeBatch(anyList())).thenAnswer(invocation -> analyzed(invocation.getArgument(0)));
+        when(analysisHistoryService.saveSyncedResults(anyList())).thenAnswer(invocation -> saved(invocation.getArgument(0), 1L));
+        OffsetDateTime past = OffsetDateTime.parse("2025-08-24T13:21:46Z");
+        AnalysisSyncItemDTO fromPast = item(UUID.randomUUID(), "Hello", null);
+        fromPast.setCreatedAt(past);
+        AnalysisSyncItemDTO fromFuture = item(UUID.randomUUID(), "Hello", null);
+        fromFuture.setCreatedAt(OffsetDateTime.now().plusDays(1));
+
+        // When
+        List<AnalysisSyncResultDTO> results = analysisSyncService.sync(List.of(fromPast, fromFuture));
+
+        // Then
+        assertEquals(past, fromPast.getCreatedAt());
+        assertFalse(fromFuture.getCreatedAt().isAfter(OffsetDateTime.now()));
+        assertNull(results.get(0).getMatchesClient());
+    }
+
+    @Test
+    void sync_withTooManyItems_shouldThrowValidationException() {
+        // Given
+        List<AnalysisSyncItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            items.add(item(UUID.randomUUID(), "Hello", null));
+        }
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> analysisSyncService.sync(items));
+        assertThrows(ValidationException.class, () -> analysisSyncService.sync(List.of()));
+        verifyNoInteractions(analysisHistoryService, textAnalysisService);
+    }
+
+    private static AnalysisSyncItemDTO item(UUID clientId, String text, Map<Character, Integer> clientResult) {
+        AnalysisRequestDTO request = new AnalysisRequestDTO();
+        request.setType(AnalysisTypeDTO.VOWELS);
+        request.setText(text);
+        return AnalysisSyncItemDTO.builder()
+                .clientId(clientId)
+                .request(request)
+                .clientResult(clientResult)
+                .build();
+    }
+
+    private static List<AnalysisBatchItemDTO> analyzed(List<AnalysisRequestDTO> requests) {
+        List<AnalysisBatchItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AnalysisResponseDTO response = new AnalysisResponseDTO();
+            response.setType(requests.get(i).getType());
+            response.setText(requests.get(i).getText());
+            response.setResult(Map.of('e', 1, 'o', 1));
+            items.add(AnalysisBatchItemDTO.builder().index(i).response(response).build());
+        }
+        return items;
+    }
+
+    private static List<AnalysisResultEntity> saved(List<AnalysisSyncItemDTO> items, long firstId) {
+        List<AnalysisResultEntity> entities = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            AnalysisResultEntity entity = new AnalysisResultEntity();
+            entity.setId(firstId + i);
+            entity.setClientId(items.get(i).getClientId());
+            entities.add(entity);
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,156 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisResponseDTO;
+import com.textrover.dto.AnalysisStatisticsDTO;
+import com.textrover.dto.AnalysisTrafficDTO;
+import com.textrover.dto.AnalysisTypeDTO;
+import com.textrover.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisTrafficWindowTest {
+
+    private static final Instant START = Instant.parse("2025-08-24T13:00:00Z");
+
+    private final MutableClock clock = new MutableClock();
+
+    private AnalysisTrafficWindow window;
+
+    @BeforeEach
+    void setUp() {
+        window = new AnalysisTrafficWindow(new AnalysisProperties().getTraffic(), clock);
+    }
+
+    @Test
+    void query_shouldMergeOnlyTheSlicesInsideTheWindow() {
+        // Given
+        window.record(analysis(AnalysisTypeDTO.VOWELS, 100, 40, 30));
+        clock.advance(Duration.ofMinutes(10));
+        window.record(analysis(AnalysisTypeDTO.CONSONANTS, 50, 20, 5));
+        clock.advance(Duration.ofSeconds(15));
+        window.record(analysis(AnalysisTypeDTO.VOWELS, 10, 4, 1));
+
+        // When
+        AnalysisTrafficDTO lastFive = window.query(Duration.ofMinutes(5));
+        AnalysisTrafficDTO lastFifteen = window.query(Duration.ofMinutes(15));
+
+        // Then
+        assertEquals(2, lastFive.getAnalyses());
+        assertEquals(1, lastFive.getVowelAnalyses());
+        assertEquals(1, lastFive.getConsonantAnalyses());
+        assertEquals(60, lastFive.getTotalTextLength());
+        assertEquals(24, lastFive.getTotalLetters());
+        assertEquals(6, lastFive.getTotalVowels());
+        assertEquals(OffsetDateTime.parse("2025-08-24T13:05:20Z"), lastFive.getFrom());
+        assertEquals(OffsetDateTime.parse("2025-08-24T13:10:15Z"), lastFive.getTo());
+
+        assertEquals(3, lastFifteen.getAnalyses());
+        assertEquals(160, lastFifteen.getTotalTextLength());
+        // Nothing was recorded before the window was created
+        assertEquals(OffsetDateTime.ofInstant(START, ZoneOffset.UTC), lastFifteen.getFrom());
+    }
+
+    @Test
+    void record_afterAFullSpan_shouldReuseTheSliceInsteadOfAddingToIt() {
+        // Given
+        window.record(analysis(AnalysisTypeDTO.VOWELS, 100, 40, 30));
+        clock.advance(Duration.ofHours(1));
+
+        // When
+        window.record(analysis(AnalysisTypeDTO.CONSONANTS, 7, 5, 2));
+
+        // Then
+        AnalysisTrafficDTO lastHour = window.query(Duration.ofHours(1));
+        assertEquals(1, lastHour.getAnalyses());
+        assertEquals(0, lastHour.getVowelAnalyses());
+        assertEquals(7, lastHour.getTotalTextLength());
+    }
+
+    @Test
+    void record_fromParallelThreads_shouldCountEveryAnalysis() throws Exception {
+        // Given
+        int threads = 8;
+        int analysesPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < analysesPerThread; i++) {
+                        window.record(analysis(AnalysisTypeDTO.VOWELS, 3, 2, 1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        AnalysisTrafficDTO traffic = window.query(Duration.ofMinutes(5));
+        assertEquals((long) threads * analysesPerThread, traffic.getAnalyses());
+        assertEquals(3L * threads * analysesPerThread, traffic.getTotalTextLength());
+    }
+
+    @Test
+    void query_withWindowOutsideTheSpan_shouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> window.query(Duration.ZERO));
+        assertThrows(ValidationException.class, () -> window.query(Duration.ofMinutes(61)));
+        assertThrows(ValidationException.class, () -> window.query(Duration.ofSeconds(15)));
+    }
+
+    private static AnalysisResponseDTO analysis(AnalysisTypeDTO type, long length, int letters, int vowels) {
+        AnalysisStatisticsDTO statistics = new AnalysisStatisticsDTO();
+        statistics.setTotalLetters(letters);
+        statistics.setTotalVowels(vowels);
+        statistics.setTotalConsonants(letters - vowels);
+        AnalysisResponseDTO response = new AnalysisResponseDTO();
+        response.setType(type);
+        response.setStatistics(statistics);
+        response.setTotalCharacters(length);
+        return response;
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
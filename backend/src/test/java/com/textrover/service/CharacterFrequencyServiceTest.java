@@ -0,0 +1,163 @@
+package com.textrover.service;
+
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.CharacterFrequenciesDTO;
+import com.textrover.dto.CharacterFrequencyDTO;
+import com.textrover.exception.ValidationException;
+import com.textrover.repository.CharacterFrequencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CharacterFrequencyServiceTest {
+
+    @Mock
+    private CharacterFrequencyRepository characterFrequencyRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CharacterFrequencyCounter counter = new CharacterFrequencyCounter();
+
+    private CharacterFrequencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CharacterFrequencyService(counter, characterFrequencyRepository, new AnalysisProperties(), meterRegistry);
+    }
+
+    @Test
+    void counts_underParallelLoadWithConcurrentFlushes_shouldBeExactInMemoryAndInTheTable() throws Exception {
+        // Given
+        int threads = 16;
+        int analysesPerThread = 20_000;
+        Map<Character, Integer> histogram = Map.of('a', 1, 'e', 2, 'ж', 3, 'z', 1);
+        Map<Character, Long> stored = new HashMap<>();
+        when(characterFrequencyRepository.findAll()).thenReturn(Map.of());
+        doAnswer(invocation -> {
+            Map<Character, Long> deltas = invocation.getArgument(0);
+            deltas.forEach((c, delta) -> stored.merge(c, delta, Long::sum));
+            return null;
+        }).when(characterFrequencyRepository).addAll(any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicBoolean analyzing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> analyses = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                analyses.add(executor.submit(() -> {
+                    startSignal.await();
+                    for (int i = 0; i < analysesPerThread; i++) {
+                        counter.addAll(histogram);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> flusher = executor.submit(() -> {
+                startSignal.await();
+                while (analyzing.get()) {
+                    service.flush();
+                }
+                return null;
+            });
+
+            // When
+            startSignal.countDown();
+            for (Future<?> analysis : analyses) {
+                analysis.get();
+            }
+            analyzing.set(false);
+            flusher.get();
+            service.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        long analyses = (long) threads * analysesPerThread;
+        histogram.forEach((c, count) -> {
+            assertEquals(analyses * count, counter.get(c), "in memory: " + c);
+            assertEquals(analyses * count, stored.get(c), "stored: " + c);
+        });
+        verify(characterFrequencyRepository, times(1)).findAll();
+    }
+
+    @Test
+    void flush_shouldLoadStoredCountsOnceAndWriteOnlyNewOccurrences() {
+        // Given
+        when(characterFrequencyRepository.findAll()).thenReturn(Map.of('e', 5L));
+        counter.add('e', 2);
+        counter.add('t', 1);
+
+        // When
+        service.flush();
+        service.flush();
+
+        // Then
+        assertEquals(7, counter.get('e'));
+        verify(characterFrequencyRepository).addAll(Map.of('e', 2L, 't', 1L));
+        verify(characterFrequencyRepository, times(1)).findAll();
+        verify(characterFrequencyRepository, times(1)).addAll(any());
+    }
+
+    @Test
+    void flush_afterFailedWrite_shouldRetryTheSameOccurrences() {
+        // Given
+        when(characterFrequencyRepository.findAll()).thenReturn(Map.of());
+        counter.add('o', 3);
+        doThrow(new QueryTimeoutException("timeout")).doNothing().when(characterFrequencyRepository).addAll(any());
+
+        // When
+        assertThrows(QueryTimeoutException.class, () -> service.flush());
+        counter.add('o', 1);
+        service.flush();
+
+        // Then
+        verify(characterFrequencyRepository).addAll(Map.of('o', 3L));
+        verify(characterFrequencyRepository).addAll(Map.of('o', 4L));
+    }
+
+    @Test
+    void getTopCharacters_shouldReturnTheMostFrequentFirst() {
+        // Given
+        counter.add('a', 4);
+        counter.add('e', 9);
+        counter.add('i', 4);
+        counter.add('u', 1);
+
+        // When
+        CharacterFrequenciesDTO result = service.getTopCharacters(3);
+
+        // Then
+        assertEquals(18, result.getTotalOccurrences());
+        assertEquals(4, result.getDistinctCharacters());
+        assertEquals(List.of(new CharacterFrequencyDTO('e', 9), new CharacterFrequencyDTO('a', 4),
+                new CharacterFrequencyDTO('i', 4)), result.getCharacters());
+        verifyNoInteractions(characterFrequencyRepository);
+    }
+
+    @Test
+    void getTopCharacters_withLimitOutOfRange_shouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> service.getTopCharacters(0));
+        assertThrows(ValidationException.class, () -> service.getTopCharacters(CharacterFrequencyService.MAX_LIMIT + 1));
+    }
+}
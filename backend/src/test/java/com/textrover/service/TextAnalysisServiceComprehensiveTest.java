@@ -1,5 +1,7 @@
 package com.textrover.service;
 
+import com.textrover.analysis.CharacterClassifier;
+import com.textrover.config.AnalysisProperties;
 import com.textrover.dto.AnalysisRequestDTO;
 import com.textrover.dto.AnalysisResponseDTO;
 import com.textrover.dto.AnalysisTypeDTO;
@@ -10,17 +12,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("TextAnalysisService Comprehensive Tests")
 class TextAnalysisServiceComprehensiveTest {
 
-    @InjectMocks
-    private TextAnalysisService textAnalysisService;
+    private final TextAnalysisService textAnalysisService = new TextAnalysisService(
+                new CharacterClassifier(), new AnalysisProperties(), ForkJoinPool.commonPool(),
+                new AnalysisResultCache(new AnalysisProperties().getCache()), new CharacterFrequencyCounter(),
+                new AnalysisTrafficWindow(new AnalysisProperties().getTraffic()));
 
     private AnalysisRequestDTO createRequest(AnalysisTypeDTO type, String text) {
         AnalysisRequestDTO request = new AnalysisRequestDTO();
@@ -1,5 +1,9 @@
 package com.textrover.service;
 
+import com.textrover.analysis.CharacterClassifier;
+import com.textrover.analysis.TextAnalysisKernel;
+import com.textrover.config.AnalysisProperties;
+import com.textrover.dto.AnalysisBatchItemDTO;
 import com.textrover.dto.AnalysisRequestDTO;
 import com.textrover.dto.AnalysisResponseDTO;
 import com.textrover.dto.AnalysisStatisticsDTO;
@@ -8,6 +12,13 @@ import com.textrover.exception.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TextAnalysisServiceTest {
@@ -16,7 +27,10 @@ class TextAnalysisServiceTest {
 
     @BeforeEach
     void setUp() {
-        textAnalysisService = new TextAnalysisService();
+        textAnalysisService = new TextAnalysisService(
+                new CharacterClassifier(), new AnalysisProperties(), ForkJoinPool.commonPool(),
+                new AnalysisResultCache(new AnalysisProperties().getCache()), new CharacterFrequencyCounter(),
+                new AnalysisTrafficWindow(new AnalysisProperties().getTraffic()));
     }
 
     @Test
@@ -319,4 +333,221 @@ class TextAnalysisServiceTest {
         assertEquals(0, response.getStatistics().getTotalLetters());
         assertEquals(10, response.getStatistics().getTotalDigits());
     }
+
+    @Test
+    void analyzeText_wordCount_shouldMatchWhitespaceSplit() {
+        // Given
+        String[] texts = {
+                "  Hello   World  ",
+                "one\ttwo\nthree\r\nfour",
+                "\u0001 leading control",
+                "trailing control \u0001",
+                "inner \u0001 control"
+        };
+
+        for (String text : texts) {
+            AnalysisRequestDTO request = new AnalysisRequestDTO();
+            request.setType(AnalysisTypeDTO.VOWELS);
+            request.setText(text);
+
+            // When
+            AnalysisResponseDTO response = textAnalysisService.analyzeText(request);
+
+            // Then
+            assertEquals(text.trim().split("\\s+").length, response.getStatistics().getWordCount(), text);
+        }
+    }
+
+    @Test
+    void analyzeText_mostFrequentCharacter_shouldIgnoreWhitespace() {
+        // Given
+        String text = "a  b  b";
+        AnalysisRequestDTO request = new AnalysisRequestDTO();
+        request.setType(AnalysisTypeDTO.CONSONANTS);
+        request.setText(text);
+
+        // When
+        AnalysisResponseDTO response = textAnalysisService.analyzeText(request);
+
+        // Then
+        assertEquals('b', response.getStatistics().getMostFrequentCharacter());
+        assertEquals(2, response.getStatistics().getMostFrequentCount());
+    }
+
+    @Test
+    void analyzeStream_shouldMatchInMemoryAnalysisAcrossChunkBoundaries() {
+        // Given
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("Héllo wörld ").append(i).append("! ");
+        }
+        String text = sb.toString();
+        AnalysisRequestDTO request = new AnalysisRequestDTO();
+        request.setType(AnalysisTypeDTO.VOWELS);
+        request.setText(text);
+
+        // When
+        AnalysisResponseDTO expected = textAnalysisService.analyzeText(request);
+        AnalysisResponseDTO streamed = textAnalysisService.analyzeStream(AnalysisTypeDTO.VOWELS, new StringReader(text));
+
+        // Then
+        assertNull(streamed.getText());
+        assertEquals(text.length(), streamed.getTotalCharacters());
+        assertEquals(expected.getResult(), streamed.getResult());
+        assertEquals(expected.getStatistics().getWordCount(), streamed.getStatistics().getWordCount());
+        assertEquals(expected.getStatistics().getTotalLetters(), streamed.getStatistics().getTotalLetters());
+        assertEquals(expected.getStatistics().getTotalSymbols(), streamed.getStatistics().getTotalSymbols());
+        assertEquals(expected.getStatistics().getMostFrequentCharacter(), streamed.getStatistics().getMostFrequentCharacter());
+    }
+
+    @Test
+    void analyzeStream_blankDocument_shouldThrowValidationException() {
+        assertThrows(ValidationException.class,
+                () -> textAnalysisService.analyzeStream(AnalysisTypeDTO.VOWELS, new StringReader("   \n\t ")));
+    }
+
+    @Test
+    void analyzeText_aboveParallelThreshold_shouldMatchSequentialAnalysis() {
+        // Given
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.getParallel().setThreshold(64);
+        properties.getParallel().setSegmentSize(37);
+        TextAnalysisService parallelService = new TextAnalysisService(
+                new CharacterClassifier(), properties, ForkJoinPool.commonPool(),
+                new AnalysisResultCache(properties.getCache()), new CharacterFrequencyCounter(),
+                new AnalysisTrafficWindow(properties.getTraffic()));
+
+        String[] fragments = {"Héllo", "wörld", "42", "!?", "\u0001", "ñandú", "\u4e2d\u6587", "  ", "\t", "\n"};
+        StringBuilder sb = new StringBuilder("\u0001 ");
+        for (int i = 0; i < 2000; i++) {
+            sb.append(fragments[(i * 7) % fragments.length]).append(i % 3 == 0 ? " " : "\u000B");
+        }
+        sb.append(" \u0001");
+        AnalysisRequestDTO request = new AnalysisRequestDTO();
+        request.setType(AnalysisTypeDTO.CONSONANTS);
+        request.setText(sb.toString());
+
+        // When
+        AnalysisResponseDTO expected = textAnalysisService.analyzeText(request);
+        AnalysisResponseDTO actual = parallelService.analyzeText(request);
+
+        // Then
+        assertEquals(expected.getResult(), actual.getResult());
+        assertEquals(expected.getTotalCharacters(), actual.getTotalCharacters());
+        AnalysisStatisticsDTO expectedStats = expected.getStatistics();
+        AnalysisStatisticsDTO actualStats = actual.getStatistics();
+        assertEquals(sb.toString().trim().split("\\s+").length, actualStats.getWordCount());
+        assertEquals(expectedStats.getWordCount(), actualStats.getWordCount());
+        assertEquals(expectedStats.getTotalLetters(), actualStats.getTotalLetters());
+        assertEquals(expectedStats.getTotalVowels(), actualStats.getTotalVowels());
+        assertEquals(expectedStats.getTotalConsonants(), actualStats.getTotalConsonants());
+        assertEquals(expectedStats.getTotalDigits(), actualStats.getTotalDigits());
+        assertEquals(expectedStats.getTotalSymbols(), actualStats.getTotalSymbols());
+        assertEquals(expectedStats.getMostFrequentCharacter(), actualStats.getMostFrequentCharacter());
+        assertEquals(expectedStats.getMostFrequentCount(), actualStats.getMostFrequentCount());
+    }
+
+    @Test
+    void analyzeStream_largeDocumentWithDefaultProperties_shouldRunOnTheForkJoinPoolAndMatchSequentialAnalysis() {
+        // Given
+        CountingForkJoinPool pool = new CountingForkJoinPool();
+        TextAnalysisService service = new TextAnalysisService(
+                new CharacterClassifier(), new AnalysisProperties(), pool,
+                new AnalysisResultCache(new AnalysisProperties().getCache()), new CharacterFrequencyCounter(),
+                new AnalysisTrafficWindow(new AnalysisProperties().getTraffic()));
+        String[] fragments = {"Héllo", "wörld", "42", "!?", "ñandú", "\u4e2d\u6587", "supercalifragilistic"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 300_000; i++) {
+            sb.append(fragments[(i * 7) % fragments.length]).append(i % 5 == 0 ? "\n" : " ");
+        }
+        String text = sb.toString();
+
+        // When
+        AnalysisResponseDTO streamed = service.analyzeStream(AnalysisTypeDTO.CONSONANTS, new StringReader(text));
+
+        // Then
+        assertTrue(pool.invocations.get() >= 3, "windows analyzed on the fork/join pool");
+        assertSameAnalysis(sequentialAnalysis(AnalysisTypeDTO.CONSONANTS, text), streamed);
+    }
+
+    @Test
+    void analyzeStream_windowWithoutWordSeparator_shouldFinishSequentiallyWithTheSameResult() {
+        // Given
+        CountingForkJoinPool pool = new CountingForkJoinPool();
+        TextAnalysisService service = new TextAnalysisService(
+                new CharacterClassifier(), new AnalysisProperties(), pool,
+                new AnalysisResultCache(new AnalysisProperties().getCache()), new CharacterFrequencyCounter(),
+                new AnalysisTrafficWindow(new AnalysisProperties().getTraffic()));
+        String text = "hello world ".repeat(10_000) + "a".repeat(200_000) + " the end";
+
+        // When
+        AnalysisResponseDTO streamed = service.analyzeStream(AnalysisTypeDTO.VOWELS, new StringReader(text));
+
+        // Then
+        assertTrue(pool.invocations.get() >= 1);
+        assertSameAnalysis(sequentialAnalysis(AnalysisTypeDTO.VOWELS, text), streamed);
+    }
+
+    @Test
+    void analyzeBatch_shouldReturnItemsInInputOrderWithPerItemErrors() {
+        // Given
+        List<AnalysisRequestDTO> requests = new ArrayList<>();
+        for (String text : new String[]{"Hello World", "   ", "aaa"}) {
+            AnalysisRequestDTO request = new AnalysisRequestDTO();
+            request.setType(AnalysisTypeDTO.VOWELS);
+            request.setText(text);
+            requests.add(request);
+        }
+
+        // When
+        List<AnalysisBatchItemDTO> items = textAnalysisService.analyzeBatch(requests);
+
+        // Then
+        assertEquals(3, items.size());
+        assertEquals(0, items.get(0).getIndex());
+        assertEquals("Hello World", items.get(0).getResponse().getText());
+        assertFalse(items.get(1).isSuccessful());
+        assertEquals("VALIDATION_ERROR", items.get(1).getErrorCode());
+        assertEquals(2, items.get(2).getIndex());
+        assertEquals(3, items.get(2).getResponse().getResult().get('a'));
+    }
+
+    private static AnalysisResponseDTO sequentialAnalysis(AnalysisTypeDTO type, String text) {
+        TextAnalysisKernel kernel = new TextAnalysisKernel(new CharacterClassifier());
+        kernel.accept(text);
+        AnalysisResponseDTO response = new AnalysisResponseDTO();
+        response.setResult(kernel.toResultMap(type));
+        response.setStatistics(kernel.toStatistics());
+        response.setTotalCharacters(kernel.getTotalCharacters());
+        return response;
+    }
+
+    private static void assertSameAnalysis(AnalysisResponseDTO expected, AnalysisResponseDTO actual) {
+        assertEquals(expected.getResult(), actual.getResult());
+        assertEquals(expected.getTotalCharacters(), actual.getTotalCharacters());
+        AnalysisStatisticsDTO expectedStats = expected.getStatistics();
+        AnalysisStatisticsDTO actualStats = actual.getStatistics();
+        assertEquals(expectedStats.getWordCount(), actualStats.getWordCount());
+        assertEquals(expectedStats.getTotalLetters(), actualStats.getTotalLetters());
+        assertEquals(expectedStats.getTotalVowels(), actualStats.getTotalVowels());
+        assertEquals(expectedStats.getTotalConsonants(), actualStats.getTotalConsonants());
+        assertEquals(expectedStats.getTotalDigits(), actualStats.getTotalDigits());
+        assertEquals(expectedStats.getTotalSymbols(), actualStats.getTotalSymbols());
+        assertEquals(expectedStats.getMostFrequentCharacter(), actualStats.getMostFrequentCharacter());
+        assertEquals(expectedStats.getMostFrequentCount(), actualStats.getMostFrequentCount());
+    }
+
+    /**
+     * Fork/join pool that counts the tasks invoked on it from outside.
+     */
+    private static class CountingForkJoinPool extends ForkJoinPool {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        @Override
+        public <T> T invoke(ForkJoinTask<T> task) {
+            invocations.incrementAndGet();
+            return super.invoke(task);
+        }
+    }
 }
@@ -25,6 +25,23 @@ export interface AnalysisHistoryResponse {
   first: boolean;
   numberOfElements: number;
   empty: boolean;
+  hasNext?: boolean;
+  // Pass back to fetch the next page; absent on the last page
+  nextCursor?: string;
+  // Whether totalElements is the server's estimate rather than an exact count
+  totalEstimated?: boolean;
+}
+
+export interface HistorySearchResponse {
+  content: AnalysisHistoryItem[];
+  size: number;
+  first: boolean;
+  last: boolean;
+  hasNext: boolean;
+  // Pass back to fetch the next page; absent on the last page
+  nextCursor?: string;
+  // On the last page: whether more entries matched than the server ranked
+  searchTruncated?: boolean;
 }
 
 export interface AnalysisHistoryItem {
@@ -0,0 +1,26 @@
+export interface PendingAnalysis {
+  clientId: string;
+  type: string;
+  text: string;
+  result: { [key: string]: number };
+  createdAt: string;
+}
+
+export interface HistorySyncRequest {
+  items: PendingAnalysis[];
+}
+
+export interface HistorySyncResult {
+  clientId: string;
+  status: 'inserted' | 'duplicate' | 'rejected';
+  id?: number;
+  matchesClient?: boolean;
+  error?: string;
+}
+
+export interface HistorySyncResponse {
+  inserted: number;
+  duplicates: number;
+  rejected: number;
+  results: HistorySyncResult[];
+}
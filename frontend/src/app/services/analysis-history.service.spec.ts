@@ -1,7 +1,7 @@
 import { TestBed } from '@angular/core/testing';
 import { HttpClientTestingModule, HttpTestingController } from '@angular/common/http/testing';
 import { AnalysisHistoryService } from './analysis-history.service';
-import { AnalysisHistoryResponse } from '../models/analysis-history';
+import { AnalysisHistoryResponse, HistorySearchResponse } from '../models/analysis-history';
 import { environment } from '../../environments/environment';
 
 describe('AnalysisHistoryService', () => {
@@ -52,7 +52,7 @@ describe('AnalysisHistoryService', () => {
         expect(response).toEqual(mockResponse);
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/history?page=0&size=20`);
+      const req = httpMock.expectOne(`${environment.apiUrl}/history?size=20&includeTotal=false`);
       expect(req.request.method).toBe('GET');
       req.flush(mockResponse);
     });
@@ -76,14 +76,17 @@ describe('AnalysisHistoryService', () => {
         sort: { empty: true, sorted: false, unsorted: true },
         first: false,
         numberOfElements: 10,
-        empty: false
+        empty: false,
+        hasNext: true,
+        nextCursor: 'def',
+        totalEstimated: true
       };
 
-      service.getAnalysisHistory(2, 10).subscribe(response => {
+      service.getAnalysisHistory(10, 'abc').subscribe(response => {
         expect(response).toEqual(mockResponse);
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/history?page=2&size=10`);
+      const req = httpMock.expectOne(`${environment.apiUrl}/history?size=10&includeTotal=false&cursor=abc`);
       expect(req.request.method).toBe('GET');
       req.flush(mockResponse);
     });
@@ -99,7 +102,7 @@ describe('AnalysisHistoryService', () => {
         }
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/history?page=0&size=20`);
+      const req = httpMock.expectOne(`${environment.apiUrl}/history?size=20&includeTotal=false`);
       req.flush(errorMessage, { status: 500, statusText: 'Internal Server Error' });
     });
 
@@ -111,11 +114,11 @@ describe('AnalysisHistoryService', () => {
         }
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/history?page=0&size=20`);
+      const req = httpMock.expectOne(`${environment.apiUrl}/history?size=20&includeTotal=false`);
       req.error(new ProgressEvent('Network error'));
     });
 
-    it('should handle large page numbers', () => {
+    it('should reach the last page through the cursor', () => {
       const mockResponse: AnalysisHistoryResponse = {
         content: [],
         pageable: {
@@ -137,11 +140,12 @@ describe('AnalysisHistoryService', () => {
         empty: true
       };
 
-      service.getAnalysisHistory(99, 10).subscribe(response => {
+      service.getAnalysisHistory(10, 'xyz').subscribe(response => {
+        expect(response.nextCursor).toBeUndefined();
         expect(response).toEqual(mockResponse);
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/history?page=99&size=10`);
+      const req = httpMock.expectOne(`${environment.apiUrl}/history?size=10&includeTotal=false&cursor=xyz`);
       expect(req.request.method).toBe('GET');
       req.flush(mockResponse);
     });
@@ -168,16 +172,45 @@ describe('AnalysisHistoryService', () => {
         empty: false
       };
 
-      service.getAnalysisHistory(0, 0).subscribe(response => {
+      service.getAnalysisHistory(0).subscribe(response => {
         expect(response).toEqual(mockResponse);
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/history?page=0&size=0`);
+      const req = httpMock.expectOne(`${environment.apiUrl}/history?size=0&includeTotal=false`);
       expect(req.request.method).toBe('GET');
       req.flush(mockResponse);
     });
   });
 
+  describe('searchHistory', () => {
+    it('should make GET request with the query and page size', () => {
+      const mockResponse: HistorySearchResponse = {
+        content: [],
+        size: 20,
+        first: true,
+        last: false,
+        hasNext: true,
+        nextCursor: 'abc'
+      };
+
+      service.searchHistory('brown fox').subscribe(response => {
+        expect(response).toEqual(mockResponse);
+      });
+
+      const req = httpMock.expectOne(`${environment.apiUrl}/history/search?q=brown%20fox&size=20`);
+      expect(req.request.method).toBe('GET');
+      req.flush(mockResponse);
+    });
+
+    it('should pass the cursor of the previous page', () => {
+      service.searchHistory('fox', 10, 'abc').subscribe();
+
+      const req = httpMock.expectOne(`${environment.apiUrl}/history/search?q=fox&size=10&cursor=abc`);
+      expect(req.request.method).toBe('GET');
+      req.flush({ content: [], size: 10, first: false, last: true, hasNext: false });
+    });
+  });
+
   describe('deleteAllHistory', () => {
     it('should make DELETE request to correct endpoint', () => {
       const mockResponse = { message: 'All history deleted successfully' };
@@ -255,19 +288,19 @@ describe('AnalysisHistoryService', () => {
 
   describe('HTTP parameter handling', () => {
     it('should convert numbers to strings in query parameters', () => {
-      service.getAnalysisHistory(5, 25).subscribe();
+      service.getAnalysisHistory(25, 'abc').subscribe();
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/history?page=5&size=25`);
-      expect(req.request.params.get('page')).toBe('5');
+      const req = httpMock.expectOne(`${environment.apiUrl}/history?size=25&includeTotal=false&cursor=abc`);
+      expect(req.request.params.get('page')).toBeNull();
       expect(req.request.params.get('size')).toBe('25');
+      expect(req.request.params.get('includeTotal')).toBe('false');
       req.flush({ content: [], totalElements: 0, totalPages: 0, size: 25, number: 5, first: false, last: true, pageable: { sort: { empty: true, sorted: false, unsorted: true }, offset: 125, pageSize: 25, pageNumber: 5, paged: true, unpaged: false }, sort: { empty: true, sorted: false, unsorted: true }, numberOfElements: 0, empty: true });
     });
 
     it('should handle negative parameters gracefully', () => {
-      service.getAnalysisHistory(-1, -5).subscribe();
+      service.getAnalysisHistory(-5).subscribe();
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/history?page=-1&size=-5`);
-      expect(req.request.params.get('page')).toBe('-1');
+      const req = httpMock.expectOne(`${environment.apiUrl}/history?size=-5&includeTotal=false`);
       expect(req.request.params.get('size')).toBe('-5');
       req.flush({ content: [], totalElements: 0, totalPages: 0, size: 0, number: 0, first: true, last: true, pageable: { sort: { empty: true, sorted: false, unsorted: true }, offset: 0, pageSize: 0, pageNumber: 0, paged: true, unpaged: false }, sort: { empty: true, sorted: false, unsorted: true }, numberOfElements: 0, empty: true });
     });
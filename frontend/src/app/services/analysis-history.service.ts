@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { AnalysisHistoryResponse } from '../models/analysis-history';
+import { AnalysisHistoryResponse, HistorySearchResponse } from '../models/analysis-history';
 import { environment } from '../../environments/environment';
 
 @Injectable({
@@ -13,16 +13,34 @@ export class AnalysisHistoryService {
   constructor(private http: HttpClient) {}
 
   /**
-   * Get paginated analysis history from the backend
+   * Get a page of analysis history from the backend, newest first. Pass the nextCursor
+   * of the previous page to continue after it; the exact total is not requested
    */
-  getAnalysisHistory(page: number = 0, size: number = 20): Observable<AnalysisHistoryResponse> {
-    const params = new HttpParams()
-      .set('page', page.toString())
-      .set('size', size.toString());
+  getAnalysisHistory(size: number = 20, cursor?: string): Observable<AnalysisHistoryResponse> {
+    let params = new HttpParams()
+      .set('size', size.toString())
+      .set('includeTotal', 'false');
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
 
     return this.http.get<AnalysisHistoryResponse>(`${this.baseUrl}/history`, { params });
   }
 
+  /**
+   * Search the analysis history by content, best matches first
+   */
+  searchHistory(query: string, size: number = 20, cursor?: string): Observable<HistorySearchResponse> {
+    let params = new HttpParams()
+      .set('q', query)
+      .set('size', size.toString());
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+
+    return this.http.get<HistorySearchResponse>(`${this.baseUrl}/history/search`, { params });
+  }
+
   /**
    * Delete all analysis history from the backend
    */
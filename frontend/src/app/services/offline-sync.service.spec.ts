@@ -0,0 +1,73 @@
+import { TestBed, fakeAsync, tick } from '@angular/core/testing';
+import { HttpClientTestingModule, HttpTestingController } from '@angular/common/http/testing';
+import { OfflineSyncService } from './offline-sync.service';
+import { AnalysisResult } from '../models/analysis-result';
+import { HistorySyncRequest } from '../models/analysis-sync';
+import { environment } from '../../environments/environment';
+
+describe('OfflineSyncService', () => {
+  let service: OfflineSyncService;
+  let httpMock: HttpTestingController;
+  const syncUrl = `${environment.apiUrl}/history/sync`;
+  const analysis: AnalysisResult = { type: 'vowels', text: 'Hello', result: { e: 1, o: 1 } };
+
+  beforeEach(() => {
+    localStorage.removeItem(OfflineSyncService.STORAGE_KEY);
+    TestBed.configureTestingModule({
+      imports: [HttpClientTestingModule],
+      providers: [OfflineSyncService]
+    });
+    service = TestBed.inject(OfflineSyncService);
+    httpMock = TestBed.inject(HttpTestingController);
+  });
+
+  afterEach(() => {
+    httpMock.verify();
+    localStorage.removeItem(OfflineSyncService.STORAGE_KEY);
+  });
+
+  it('should send queued analyses after the flush delay', fakeAsync(() => {
+    service.enqueue(analysis);
+    service.enqueue(analysis);
+    httpMock.expectNone(syncUrl);
+
+    tick(OfflineSyncService.FLUSH_DELAY_MS);
+
+    const req = httpMock.expectOne(syncUrl);
+    const body = req.request.body as HistorySyncRequest;
+    expect(req.request.method).toBe('POST');
+    expect(body.items.length).toBe(2);
+    expect(body.items[0].type).toBe('VOWELS');
+    expect(body.items[0].clientId).not.toBe(body.items[1].clientId);
+
+    req.flush({
+      inserted: 1,
+      duplicates: 1,
+      rejected: 0,
+      results: [
+        { clientId: body.items[0].clientId, status: 'inserted', id: 1, matchesClient: true },
+        { clientId: body.items[1].clientId, status: 'duplicate' }
+      ]
+    });
+    expect(service.pendingCount()).toBe(0);
+  }));
+
+  it('should keep analyses queued when the sync fails', fakeAsync(() => {
+    service.enqueue(analysis);
+    tick(OfflineSyncService.FLUSH_DELAY_MS);
+
+    httpMock.expectOne(syncUrl).flush('Server error', { status: 500, statusText: 'Internal Server Error' });
+
+    expect(service.pendingCount()).toBe(1);
+  }));
+
+  it('should flush immediately once a batch is full', () => {
+    for (let i = 0; i < OfflineSyncService.MAX_BATCH_SIZE; i++) {
+      service.enqueue(analysis);
+    }
+
+    const req = httpMock.expectOne(syncUrl);
+    expect((req.request.body as HistorySyncRequest).items.length).toBe(OfflineSyncService.MAX_BATCH_SIZE);
+    req.flush({ inserted: 0, duplicates: 0, rejected: 0, results: [] });
+  });
+});
@@ -0,0 +1,117 @@
+import { Injectable, OnDestroy } from '@angular/core';
+import { HttpClient } from '@angular/common/http';
+import { AnalysisResult } from '../models/analysis-result';
+import { HistorySyncResponse, PendingAnalysis } from '../models/analysis-sync';
+import { environment } from '../../environments/environment';
+
+/**
+ * Queues offline analyses in localStorage and sends them to the backend in batches,
+ * once a batch is full, shortly after the last analysis, or when the browser comes
+ * back online. Every analysis carries a client id, so resending a batch is harmless.
+ */
+@Injectable({
+  providedIn: 'root'
+})
+export class OfflineSyncService implements OnDestroy {
+  static readonly STORAGE_KEY = 'textrover.pendingSync';
+  static readonly MAX_BATCH_SIZE = 100;
+  static readonly FLUSH_DELAY_MS = 2000;
+
+  private readonly syncUrl = `${environment.apiUrl}/history/sync`;
+  private flushTimer: ReturnType<typeof setTimeout> | null = null;
+  private flushing = false;
+  private readonly onlineListener = () => this.flush();
+
+  constructor(private http: HttpClient) {
+    window.addEventListener('online', this.onlineListener);
+  }
+
+  ngOnDestroy(): void {
+    window.removeEventListener('online', this.onlineListener);
+    this.cancelScheduledFlush();
+  }
+
+  /**
+   * Queue an offline analysis for syncing
+   */
+  enqueue(result: AnalysisResult): void {
+    const queue = this.readQueue();
+    queue.push({
+      clientId: crypto.randomUUID(),
+      type: result.type.toUpperCase(),
+      text: result.text,
+      result: result.result,
+      createdAt: new Date().toISOString()
+    });
+    this.writeQueue(queue);
+
+    if (queue.length >= OfflineSyncService.MAX_BATCH_SIZE) {
+      this.flush();
+    } else {
+      this.scheduleFlush();
+    }
+  }
+
+  /**
+   * Number of analyses waiting to be synced
+   */
+  pendingCount(): number {
+    return this.readQueue().length;
+  }
+
+  /**
+   * Send the oldest queued analyses, then continue with the rest while batches succeed
+   */
+  flush(): void {
+    this.cancelScheduledFlush();
+    if (this.flushing || !navigator.onLine) {
+      return;
+    }
+    const batch = this.readQueue().slice(0, OfflineSyncService.MAX_BATCH_SIZE);
+    if (batch.length === 0) {
+      return;
+    }
+
+    this.flushing = true;
+    this.http.post<HistorySyncResponse>(this.syncUrl, { items: batch }).subscribe({
+      next: (response) => {
+        // Inserted, duplicate and rejected items are all settled; anything else is retried
+        const settled = new Set(response.results.map(item => item.clientId));
+        const remaining = this.readQueue().filter(item => !settled.has(item.clientId));
+        this.writeQueue(remaining);
+        this.flushing = false;
+        if (settled.size > 0 && remaining.length > 0) {
+          this.flush();
+        }
+      },
+      error: () => {
+        // Kept in the queue until the next analysis or the next time the browser comes online
+        this.flushing = false;
+      }
+    });
+  }
+
+  private scheduleFlush(): void {
+    this.cancelScheduledFlush();
+    this.flushTimer = setTimeout(() => this.flush(), OfflineSyncService.FLUSH_DELAY_MS);
+  }
+
+  private cancelScheduledFlush(): void {
+    if (this.flushTimer !== null) {
+      clearTimeout(this.flushTimer);
+      this.flushTimer = null;
+    }
+  }
+
+  private readQueue(): PendingAnalysis[] {
+    try {
+      return JSON.parse(localStorage.getItem(OfflineSyncService.STORAGE_KEY) ?? '[]');
+    } catch {
+      return [];
+    }
+  }
+
+  private writeQueue(queue: PendingAnalysis[]): void {
+    localStorage.setItem(OfflineSyncService.STORAGE_KEY, JSON.stringify(queue));
+  }
+}
@@ -15,6 +15,7 @@ import {MatTooltipModule} from '@angular/material/tooltip';
 import {MatSnackBar} from '@angular/material/snack-bar';
 import {TextAnalysisService} from '../services/text-analysis.service';
 import {AnalysisHistoryService} from '../services/analysis-history.service';
+import {OfflineSyncService} from '../services/offline-sync.service';
 import {AnalysisResult, AnalysisStatistics} from '../models/analysis-result';
 import {AnalysisType} from '../models/analysis-type';
 import {AnalysisHistoryItem} from '../models/analysis-history';
@@ -45,14 +46,12 @@ export class TextAnalysisComponent implements OnInit {
     analysisType: AnalysisType = 'vowels';
     isOnlineMode = true;
     isLoading = false;
-    isLoadingHistory = false;
     isDeletingHistory = false;
-    hasMoreHistory = false;
     analysisHistory: AnalysisResult[] = [];
     maxTextLength = 10000;
 
-    // Pagination properties
-    currentPage = 0;
+    // Pagination properties; the cursor comes from the previous page
+    nextCursor?: string;
     pageSize = 20;
     totalElements = 0;
     isLoadingMore = false;
@@ -61,6 +60,7 @@ export class TextAnalysisComponent implements OnInit {
     constructor(
         private textAnalysisService: TextAnalysisService,
         private analysisHistoryService: AnalysisHistoryService,
+        private offlineSyncService: OfflineSyncService,
         private snackBar: MatSnackBar
     ) {
     }
@@ -101,6 +101,7 @@ export class TextAnalysisComponent implements OnInit {
         } else {
             const result = this.textAnalysisService.analyzeTextOffline(this.analysisType, this.inputText);
             this.addToHistory(result, 'offline');
+            this.offlineSyncService.enqueue(result);
             this.isLoading = false;
         }
     }
@@ -118,12 +119,12 @@ export class TextAnalysisComponent implements OnInit {
      * Load initial history from database on component initialization
      */
     loadInitialHistory(): void {
-        this.analysisHistoryService.getAnalysisHistory(0, this.pageSize)
+        this.analysisHistoryService.getAnalysisHistory(this.pageSize)
             .subscribe({
                 next: (response) => {
                     this.analysisHistory = this.convertHistoryItems(response.content);
                     this.totalElements = response.totalElements;
-                    this.currentPage = 0;
+                    this.nextCursor = response.nextCursor;
                     this.hasMoreData = !response.last;
                 },
                 error: (error) => {
@@ -140,14 +141,13 @@ export class TextAnalysisComponent implements OnInit {
         if (this.isLoadingMore || !this.hasMoreData) return;
 
         this.isLoadingMore = true;
-        const nextPage = this.currentPage + 1;
 
-        this.analysisHistoryService.getAnalysisHistory(nextPage, this.pageSize)
+        this.analysisHistoryService.getAnalysisHistory(this.pageSize, this.nextCursor)
             .subscribe({
                 next: (response) => {
                     const newItems = this.convertHistoryItems(response.content);
                     this.analysisHistory.push(...newItems);
-                    this.currentPage = nextPage;
+                    this.nextCursor = response.nextCursor;
                     this.hasMoreData = !response.last;
                     this.isLoadingMore = false;
                 },
@@ -189,7 +189,7 @@ export class TextAnalysisComponent implements OnInit {
      */
     clearLocalHistory(): void {
         this.analysisHistory = [];
-        this.currentPage = 0;
+        this.nextCursor = undefined;
         this.hasMoreData = true;
         this.snackBar.open('Local history cleared', 'Close', {
             duration: 2000
@@ -204,7 +204,7 @@ export class TextAnalysisComponent implements OnInit {
             .subscribe({
                 next: (response) => {
                     this.analysisHistory = [];
-                    this.currentPage = 0;
+                    this.nextCursor = undefined;
                     this.totalElements = 0;
                     this.hasMoreData = false;
                     this.snackBar.open('All history deleted from database', 'Close', {